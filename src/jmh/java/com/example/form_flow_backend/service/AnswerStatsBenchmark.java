@@ -0,0 +1,76 @@
+package com.example.form_flow_backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting one batch of takes: the old split + boxed HashMap loop against AnswerTokenizer + AnswerHistogram,
+ * both ending with the maps the stats DTOs are built from.
+ * Run with ./gradlew jmh; the gc profiler reports gc.alloc.rate.norm (bytes allocated per batch).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AnswerStatsBenchmark {
+
+    @Param({"10", "1000"})
+    private int optionsPerQuestion;
+
+    private String[] takes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        takes = new String[10_000];
+        for (int i = 0; i < takes.length; i++) {
+            StringBuilder take = new StringBuilder();
+            for (int question = 0; question < 10; question++) {
+                if (question > 0) {
+                    take.append(';');
+                }
+                take.append("option").append(random.nextInt(optionsPerQuestion));
+                if (question % 3 == 0) {
+                    take.append(",option").append(random.nextInt(optionsPerQuestion));
+                }
+            }
+            takes[i] = take.toString();
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, HashMap<String, Integer>> splitWithBoxedCounts() {
+        Map<Integer, HashMap<String, Integer>> stats = new HashMap<>();
+        for (String take : takes) {
+            String[] perQuestion = take.split(";");
+            for (int i = 0; i < perQuestion.length; i++) {
+                HashMap<String, Integer> question = stats.computeIfAbsent(i + 1, order -> new HashMap<>());
+                for (String answer : perQuestion[i].split(",")) {
+                    question.put(answer, question.getOrDefault(answer, 0) + 1);
+                }
+            }
+        }
+        return stats;
+    }
+
+    @Benchmark
+    public SortedMap<Integer, Map<String, Long>> scanWithPrimitiveCounts() {
+        AnswerHistogram histogram = new AnswerHistogram();
+        for (String take : takes) {
+            histogram.add(take);
+        }
+        return histogram.toCounts();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.form_flow_backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One counter row, or one pending increment of it.
+ */
+@Getter
+@AllArgsConstructor
+public class AnswerCount {
+    private final Long surveyId;
+    private final Integer questionOrder;
+    private final String answer;
+    private final long count;
+}
@@ -6,7 +6,7 @@ import lombok.Setter;
 
 @Getter
 @Setter
-public class CreateSurveyRequest {
+public class CreateSurveyRequest implements SessionTokenRequest {
     private String sessionToken;
     private String surveyName;
     private String description;
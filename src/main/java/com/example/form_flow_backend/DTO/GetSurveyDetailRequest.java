@@ -5,7 +5,7 @@ import lombok.Setter;
 
 @Getter
 @Setter
-public class GetSurveyDetailRequest {
+public class GetSurveyDetailRequest implements SessionTokenRequest {
     private String sessionToken;
     private String surveyId;
 }
@@ -0,0 +1,21 @@
+package com.example.form_flow_backend.DTO;
+
+import com.example.form_flow_backend.model.Question;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Outcome of an incremental question update: the row counts that were written,
+ * the survey's new questionsVersion and the resulting questions.
+ */
+@Getter
+@AllArgsConstructor
+public class QuestionChanges {
+    private final int inserted;
+    private final int updated;
+    private final int deleted;
+    private final long questionsVersion;
+    private final List<Question> questions;
+}
@@ -0,0 +1,24 @@
+package com.example.form_flow_backend.DTO;
+
+import com.example.form_flow_backend.model.Question;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Read-only view of a question as returned by the survey detail endpoint.
+ * Instances are immutable so that one cached list can be shared by all respondents.
+ */
+@Getter
+@AllArgsConstructor
+public class QuestionDTO {
+    private final Long id;
+    private final String type;
+    private final Integer question_order;
+    private final String description;
+    private final String body;
+
+    public static QuestionDTO from(Question question) {
+        return new QuestionDTO(question.getId(), question.getType(), question.getQuestion_order(),
+                question.getDescription(), question.getBody());
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.form_flow_backend.DTO;
+
+/**
+ * A JSON request body that carries the caller's session token.
+ */
+public interface SessionTokenRequest {
+    String getSessionToken();
+}
@@ -0,0 +1,19 @@
+package com.example.form_flow_backend.DTO;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Body of the survey listing endpoints. All paging fields are optional:
+ * afterId is the nextCursor of the previous page, name filters by a case-insensitive substring,
+ * and the total is only counted when includeTotal is true.
+ */
+@Getter
+@Setter
+public class SurveyPageRequest implements SessionTokenRequest {
+    private String sessionToken;
+    private Long afterId;
+    private Integer pageSize;
+    private String name;
+    private boolean includeTotal;
+}
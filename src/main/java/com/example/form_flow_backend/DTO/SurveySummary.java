@@ -0,0 +1,12 @@
+package com.example.form_flow_backend.DTO;
+
+/**
+ * Projection of the survey columns shown in listings; loads neither the owner nor the questions.
+ */
+public interface SurveySummary {
+    Long getId();
+
+    String getSurveyName();
+
+    String getDescription();
+}
@@ -6,7 +6,7 @@ import lombok.Setter;
 
 @Getter
 @Setter
-public class TakeSurveyRequest {
+public class TakeSurveyRequest implements SessionTokenRequest {
     private String sessionToken;
     private String surveyId;
     private String answers;
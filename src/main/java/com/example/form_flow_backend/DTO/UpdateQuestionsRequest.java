@@ -8,10 +8,12 @@ import java.util.List;
 
 @Getter
 @Setter
-public class UpdateQuestionsRequest {
+public class UpdateQuestionsRequest implements SessionTokenRequest {
     // Getters and setters
     private String sessionToken;
     private String surveyId;
     private List<Question> questions; // Using the entity directly
+    // 可选：客户端读取时的 questionsVersion，不一致时返回 409
+    private Long questionsVersion;
 
 }
@@ -8,11 +8,13 @@ import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.ApplicationContextInitializer;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.example.form_flow_backend.Utilities.SecretManagerUtil;
 
 
 @SpringBootApplication
+@EnableScheduling
 public class FormFlowBackendApplication {
 
 	public static void main(String[] args) throws JSONException {
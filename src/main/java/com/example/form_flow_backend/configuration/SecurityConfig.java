@@ -2,27 +2,42 @@ package com.example.form_flow_backend.configuration;
 
 import com.example.form_flow_backend.model.Session;
 import com.example.form_flow_backend.model.User;
-import com.example.form_flow_backend.repository.SessionRepository;
 import com.example.form_flow_backend.repository.UserRepository;
+import com.example.form_flow_backend.security.BoundedPasswordEncoder;
+import com.example.form_flow_backend.security.LoginRateLimiter;
+import com.example.form_flow_backend.security.LoginThrottleFilter;
+import com.example.form_flow_backend.security.PasswordHashingUnavailableException;
+import com.example.form_flow_backend.security.SessionTokenAuthenticationFilter;
 import com.example.form_flow_backend.service.SessionService;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.DelegatingSecurityContextRepository;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 
 // 关键：这里用的是 MVC 下的 UrlBasedCorsConfigurationSource
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Configuration
 @EnableWebSecurity
@@ -31,10 +46,19 @@ public class SecurityConfig {
 
     private final UserRepository userRepository;
     private final SessionService sessionService;
-
-    public SecurityConfig(UserRepository userRepository, SessionService sessionService) {
+    private final LoginRateLimiter loginRateLimiter;
+    private final boolean stateless;
+    private final Set<String> operators;
+
+    public SecurityConfig(UserRepository userRepository, SessionService sessionService,
+                          LoginRateLimiter loginRateLimiter,
+                          @Value("${security.stateless:true}") boolean stateless,
+                          @Value("${security.operators:}") Set<String> operators) {
         this.userRepository = userRepository;
         this.sessionService = sessionService;
+        this.loginRateLimiter = loginRateLimiter;
+        this.stateless = stateless;
+        this.operators = operators;
     }
 
     /**
@@ -75,7 +99,21 @@ public class SecurityConfig {
         http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 // 测试环境下关闭 CSRF（生产环境请谨慎处理）
                 .csrf(AbstractHttpConfigurer::disable)
+                // 无状态模式：不创建 HttpSession / JSESSIONID，调用者由 sessionToken 识别
+                .sessionManagement(session -> session.sessionCreationPolicy(
+                        stateless ? SessionCreationPolicy.STATELESS : SessionCreationPolicy.IF_REQUIRED))
+                // 登录限流：在加载用户和校验密码之前执行
+                .addFilterBefore(new LoginThrottleFilter(loginRateLimiter, "/auth/login"),
+                        UsernamePasswordAuthenticationFilter.class)
+                // 根据 X-Session-Token 填充 SecurityContext
+                .addFilterBefore(new SessionTokenAuthenticationFilter(sessionService, operators),
+                        UsernamePasswordAuthenticationFilter.class)
+                // 未认证访问受限端点时返回 401，而不是跳转到登录页
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .authorizeHttpRequests(auth -> auth
+                        // 批量注册和统计审计只对运维账号开放
+                        .requestMatchers("/auth/register/bulk", "/take/audit_survey_stats").hasRole("OPERATOR")
                         // 放行以下端点
                         .requestMatchers(
                                 "/auth/register",
@@ -89,6 +127,7 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .formLogin(form -> form
+                        .securityContextRepository(securityContextRepository())
                         .loginProcessingUrl("/auth/login")
                         .successHandler((request, response, authentication) -> {
                             response.setContentType("application/json;charset=UTF-8");
@@ -106,6 +145,15 @@ public class SecurityConfig {
                         })
                         .failureHandler((request, response, exception) -> {
                             response.setContentType("application/json;charset=UTF-8");
+                            // 哈希线程池已满：返回 503，让客户端稍后重试
+                            if (exception instanceof PasswordHashingUnavailableException) {
+                                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                                response.setHeader("Retry-After", "1");
+                                response.getWriter().write(
+                                        "{\"success\":false,\"message\":\"Server busy, please retry.\"}"
+                                );
+                                return;
+                            }
                             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                             response.getWriter().write(
                                     "{\"success\":false,\"message\":\"Invalid credentials\"}"
@@ -130,10 +178,28 @@ public class SecurityConfig {
     }
 
     /**
-     * 密码加密器
+     * 登录成功后 SecurityContext 的保存位置：无状态模式下只保存在当前请求中，不创建 HttpSession
+     */
+    private SecurityContextRepository securityContextRepository() {
+        if (stateless) {
+            return new RequestAttributeSecurityContextRepository();
+        }
+        return new DelegatingSecurityContextRepository(
+                new RequestAttributeSecurityContextRepository(), new HttpSessionSecurityContextRepository());
+    }
+
+    /**
+     * 密码加密器：BCrypt 运行在独立的有界线程池上，不占用请求线程的 CPU
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${password.bcrypt.strength:10}") int strength,
+            @Value("${password.hashing.pool-size:0}") int poolSize,
+            @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${password.hashing.timeout:PT5S}") Duration timeout,
+            MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength),
+                threads, queueCapacity, timeout, meterRegistry);
     }
 }
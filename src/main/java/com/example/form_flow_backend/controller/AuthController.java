@@ -1,6 +1,8 @@
 package com.example.form_flow_backend.controller;
 
 import com.example.form_flow_backend.model.User;
+import com.example.form_flow_backend.security.AuthenticatedUser;
+import com.example.form_flow_backend.service.UserImportService;
 import com.example.form_flow_backend.service.UserManagementService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.util.Map;
 
 @RestController
@@ -22,10 +25,12 @@ import java.util.Map;
 public class AuthController {
 
     private final UserManagementService userManagementService;
+    private final UserImportService userImportService;
 
-    // Constructor injection for UserManagementService
-    public AuthController(UserManagementService userManagementService) {
+    // Constructor injection for UserManagementService and UserImportService
+    public AuthController(UserManagementService userManagementService, UserImportService userImportService) {
         this.userManagementService = userManagementService;
+        this.userImportService = userImportService;
     }
 
     /**
@@ -46,6 +51,20 @@ public class AuthController {
         return userManagementService.registerUser(user);
     }
 
+    /**
+     * Registers many users from a CSV (text/csv) or NDJSON (application/x-ndjson) body.
+     * Requires the X-Session-Token header of a user listed in security.operators
+     * (enforced in SecurityConfig). Returns a per-row report.
+     */
+    @PostMapping(value = "/register/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<Map<String, Object>> registerUsersInBulk(HttpServletRequest request,
+                                                                   AuthenticatedUser authenticatedUser) throws IOException {
+        UserImportService.Format format = request.getContentType().startsWith("text/csv")
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+        return userImportService.importUsers(request.getInputStream(), format);
+    }
+
     /**
      * Deletes a user by username.
      * Deletes the user using the provided username.
@@ -2,14 +2,18 @@ package com.example.form_flow_backend.controller;
 
 import com.example.form_flow_backend.DTO.CreateSurveyRequest;
 import com.example.form_flow_backend.DTO.GetSurveyDetailRequest;
+import com.example.form_flow_backend.DTO.SurveyPageRequest;
 import com.example.form_flow_backend.DTO.UpdateQuestionsRequest;
-import com.example.form_flow_backend.service.SessionService;
+import com.example.form_flow_backend.security.AuthenticatedUser;
 import com.example.form_flow_backend.service.SurveyService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map;
-
+/**
+ * Every handler takes an {@link AuthenticatedUser}, so a request without a valid
+ * session is rejected before it reaches {@link SurveyService}.
+ */
 @RestController
 @RequestMapping("/survey")
 public class SurveyController {
@@ -21,27 +25,29 @@ public class SurveyController {
     }
 
     @PostMapping("/create")
-    public ResponseEntity<?> createSurvey(@RequestBody CreateSurveyRequest request) {
-        return surveyService.createSurvey(request);
+    public ResponseEntity<?> createSurvey(@RequestBody CreateSurveyRequest request, AuthenticatedUser authenticatedUser) {
+        return surveyService.createSurvey(request, authenticatedUser);
     }
 
     @PostMapping("/update_questions")
-    public ResponseEntity<?> updateQuestions(@RequestBody UpdateQuestionsRequest request) {
+    public ResponseEntity<?> updateQuestions(@RequestBody UpdateQuestionsRequest request, AuthenticatedUser authenticatedUser) {
         return surveyService.updateQuestions(request);
     }
 
     @PostMapping("/getSurvey")
-    public ResponseEntity<?> getSurvey(@RequestBody Map<String, String> request) {
-        return surveyService.getAllSurveysForUser(request.get("sessionToken"));
+    public ResponseEntity<?> getSurvey(@RequestBody SurveyPageRequest request, AuthenticatedUser authenticatedUser) {
+        return surveyService.getAllSurveysForUser(request, authenticatedUser);
     }
 
     @PostMapping("/get_survey_detail")
-    public ResponseEntity<?> getSurveyDetail(@RequestBody GetSurveyDetailRequest request) {
-        return surveyService.getSurveyDetail(request);
+    public ResponseEntity<?> getSurveyDetail(@RequestBody GetSurveyDetailRequest request, AuthenticatedUser authenticatedUser,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return surveyService.getSurveyDetail(request, authenticatedUser, ifNoneMatch, acceptEncoding);
     }
 
     @PostMapping("/get_accessible_survey")
-    public ResponseEntity<?> getAccessibleSurvey(@RequestBody Map<String, String> request) {
-        return surveyService.getAccessibleSurvey(request.get("sessionToken"));
+    public ResponseEntity<?> getAccessibleSurvey(@RequestBody SurveyPageRequest request, AuthenticatedUser authenticatedUser) {
+        return surveyService.getAccessibleSurvey(request, authenticatedUser);
     }
 }
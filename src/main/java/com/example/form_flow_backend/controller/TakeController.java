@@ -2,6 +2,7 @@ package com.example.form_flow_backend.controller;
 
 import com.example.form_flow_backend.DTO.GetSurveyDetailRequest;
 import com.example.form_flow_backend.DTO.TakeSurveyRequest;
+import com.example.form_flow_backend.security.AuthenticatedUser;
 import com.example.form_flow_backend.service.TakeService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -20,12 +21,26 @@ public class TakeController {
     }
 
     @PostMapping("/take_survey")
-    public ResponseEntity<?> takeSurvey(@RequestBody TakeSurveyRequest request) {
-        return takeService.takeSurvey(request);
+    public ResponseEntity<?> takeSurvey(@RequestBody TakeSurveyRequest request, AuthenticatedUser authenticatedUser) {
+        return takeService.takeSurvey(request, authenticatedUser);
     }
 
     @PostMapping("/get_survey_stats")
-    public ResponseEntity<?> getSurveyTakeStatistics(@RequestBody GetSurveyDetailRequest request) {
+    public ResponseEntity<?> getSurveyTakeStatistics(@RequestBody GetSurveyDetailRequest request, AuthenticatedUser authenticatedUser) {
         return takeService.getSurveyTakeStatistics(request);
     }
+
+    @PostMapping("/recompute_survey_stats")
+    public ResponseEntity<?> recomputeSurveyTakeStatistics(@RequestBody GetSurveyDetailRequest request, AuthenticatedUser authenticatedUser) {
+        return takeService.recomputeSurveyTakeStatistics(request, authenticatedUser);
+    }
+
+    /**
+     * Recounts a survey from takes.answers and reports where answer_counters and take_answers disagree.
+     * Operators only (enforced in SecurityConfig).
+     */
+    @PostMapping("/audit_survey_stats")
+    public ResponseEntity<?> auditSurveyTakeStatistics(@RequestBody GetSurveyDetailRequest request, AuthenticatedUser authenticatedUser) {
+        return takeService.auditSurveyTakeStatistics(request);
+    }
 }
@@ -7,16 +7,22 @@ import lombok.Setter;
 @Entity
 @Getter
 @Setter
+@Table(indexes = {
+        // findGrantedPage / countGranted：按用户顺序扫授权
+        @Index(name = "idx_access_user_survey", columnList = "user_id, survey_id"),
+        // SurveyAccessIndex 按 survey 加载被授权用户
+        @Index(name = "idx_access_survey_user", columnList = "survey_id, user_id")
+})
 public class Access {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "survey_id", nullable = false)
     private Survey survey;
 }
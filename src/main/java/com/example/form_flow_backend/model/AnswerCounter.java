@@ -0,0 +1,34 @@
+package com.example.form_flow_backend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * How many takes chose one answer to one question. Maintained at take time
+ * (see AnswerCounters), so statistics never have to scan the takes table.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "answer_counters", uniqueConstraints = @UniqueConstraint(
+        name = "uk_answer_counters_survey_question_answer", columnNames = {"survey_id", "question_order", "answer"}))
+public class AnswerCounter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "survey_id", nullable = false)
+    private Survey survey;
+
+    @Column(nullable = false)
+    private Integer questionOrder;
+
+    // 二进制排序规则（utf8mb4_0900_bin，见 V4），与 Java 中按字符串精确比较一致
+    @Column(nullable = false)
+    private String answer;
+
+    @Column(nullable = false)
+    private long answerCount;
+}
@@ -0,0 +1,27 @@
+package com.example.form_flow_backend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * A signed session token that was logged out before it expired.
+ * Rows are only needed until expirationDate, after which the token is rejected anyway.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_expiration_date", columnList = "expirationDate"))
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private String tokenId;
+
+    @Column(nullable = false)
+    private Date expirationDate;
+}
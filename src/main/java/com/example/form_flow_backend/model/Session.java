@@ -9,7 +9,7 @@ import java.util.Date;
 @Entity
 @Getter
 @Setter
-@Table(name = "sessions")
+@Table(name = "sessions", indexes = @Index(name = "idx_sessions_expiration_date", columnList = "expirationDate"))
 public class Session {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -7,7 +7,10 @@ import lombok.Setter;
 @Entity
 @Getter
 @Setter
-@Table(name = "surveys")
+@Table(name = "surveys", indexes = {
+        @Index(name = "idx_surveys_user_id_id", columnList = "user_id, id"),
+        @Index(name = "idx_surveys_is_public_id", columnList = "is_public, id")
+})
 public class Survey {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,7 +22,15 @@ public class Survey {
     @Column
     private String description;
 
-    @ManyToOne
+    // 对所有人开放（取代以前指向 id 为 -1 的用户的 Access 记录）
+    @Column(name = "is_public", nullable = false)
+    private boolean publicSurvey;
+
+    // 每次 updateQuestions 自增，用于判断缓存中的问题列表是否过期
+    @Column(nullable = false)
+    private long questionsVersion;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
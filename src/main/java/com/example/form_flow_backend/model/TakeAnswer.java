@@ -0,0 +1,35 @@
+package com.example.form_flow_backend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One option chosen in one take. Written together with the take (see TakesRepositoryCustom),
+ * so statistics can be aggregated by the database instead of splitting Takes.answers in the JVM.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "take_answers", indexes = @Index(
+        name = "idx_take_answers_survey_question_answer", columnList = "survey_id, question_order, answer"))
+public class TakeAnswer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "take_id", nullable = false)
+    private Takes take;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "survey_id", nullable = false)
+    private Survey survey;
+
+    @Column(nullable = false)
+    private Integer questionOrder;
+
+    // 二进制排序规则（utf8mb4_0900_bin，见 V6），GROUP BY 不会合并只差大小写或重音的答案
+    @Column(nullable = false)
+    private String answer;
+}
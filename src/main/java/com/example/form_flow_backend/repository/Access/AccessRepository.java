@@ -3,6 +3,10 @@ package com.example.form_flow_backend.repository.Access;
 import com.example.form_flow_backend.model.Access;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+/**
+ * Granted surveys are listed in SurveyRepository by scanning this table's (user_id, survey_id) index
+ * rather than by loading Access entities.
+ */
 public interface AccessRepository extends JpaRepository<Access, Long>, AccessRepositoryCustom {
 
 }
@@ -1,10 +1,14 @@
 package com.example.form_flow_backend.repository.Access;
 
-import com.example.form_flow_backend.model.Access;
-import com.example.form_flow_backend.model.User;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.Collection;
 
 public interface AccessRepositoryCustom {
-    List<Access> findAccessByUser(User user);
+    /**
+     * Grants the survey to the given users with one JDBC batch, in a single transaction.
+     * Access ids are IDENTITY columns, which stop Hibernate from batching saveAll.
+     */
+    @Transactional
+    void batchInsert(Long surveyId, Collection<Long> userIds);
 }
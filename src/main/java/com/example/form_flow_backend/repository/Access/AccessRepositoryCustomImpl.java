@@ -1,22 +1,27 @@
 package com.example.form_flow_backend.repository.Access;
 
-import com.example.form_flow_backend.model.Access;
-import com.example.form_flow_backend.model.User;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.TypedQuery;
+import org.springframework.jdbc.core.JdbcTemplate;
 
-import java.util.List;
+import java.util.Collection;
 
 public class AccessRepositoryCustomImpl implements AccessRepositoryCustom {
-    @PersistenceContext
-    private EntityManager entityManager;
+
+    private static final String INSERT_SQL = "INSERT INTO access (survey_id, user_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccessRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
 
     @Override
-    public List<Access> findAccessByUser(User user) {
-        String jpql = "SELECT a FROM Access a WHERE a.user.id = :userId OR a.user.id = -1";
-        TypedQuery<Access> query = entityManager.createQuery(jpql, Access.class);
-        query.setParameter("userId", user.getId());
-        return query.getResultList();
+    public void batchInsert(Long surveyId, Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, userIds, userIds.size(), (ps, userId) -> {
+            ps.setLong(1, surveyId);
+            ps.setLong(2, userId);
+        });
     }
 }
@@ -0,0 +1,15 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.DTO.AnswerCount;
+import com.example.form_flow_backend.model.AnswerCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AnswerCounterRepository extends JpaRepository<AnswerCounter, Long>, AnswerCounterRepositoryCustom {
+    @Query("SELECT new com.example.form_flow_backend.DTO.AnswerCount(c.survey.id, c.questionOrder, c.answer, c.answerCount) "
+            + "FROM AnswerCounter c WHERE c.survey.id = :surveyId ORDER BY c.questionOrder, c.answer")
+    List<AnswerCount> findCountsBySurveyId(@Param("surveyId") Long surveyId);
+}
@@ -0,0 +1,14 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.DTO.AnswerCount;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface AnswerCounterRepositoryCustom {
+    /**
+     * Adds each delta to its counter row, creating missing rows, with one JDBC batch in a single transaction.
+     */
+    @Transactional
+    void addCounts(List<AnswerCount> deltas);
+}
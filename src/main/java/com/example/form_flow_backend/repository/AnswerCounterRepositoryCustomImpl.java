@@ -0,0 +1,59 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.DTO.AnswerCount;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class AnswerCounterRepositoryCustomImpl implements AnswerCounterRepositoryCustom {
+
+    private static final String UPSERT_SQL = "INSERT INTO answer_counters (survey_id, question_order, answer, answer_count) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE answer_count = answer_count + VALUES(answer_count)";
+
+    // 所有节点按唯一索引的顺序加行锁，并发写出时不会互相死锁
+    private static final Comparator<AnswerCount> LOCK_ORDER = Comparator.comparing(AnswerCount::getSurveyId)
+            .thenComparing(AnswerCount::getQuestionOrder)
+            .thenComparing(AnswerCount::getAnswer, AnswerCounterRepositoryCustomImpl::compareCodePoints);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AnswerCounterRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addCounts(List<AnswerCount> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<AnswerCount> ordered = new ArrayList<>(deltas);
+        ordered.sort(LOCK_ORDER);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, ordered, ordered.size(), (ps, delta) -> {
+            ps.setLong(1, delta.getSurveyId());
+            ps.setInt(2, delta.getQuestionOrder());
+            ps.setString(3, delta.getAnswer());
+            ps.setLong(4, delta.getCount());
+        });
+    }
+
+    /**
+     * The order of utf8mb4_0900_bin: by code point. String.compareTo compares UTF-16 units, which puts
+     * supplementary characters before U+E000..U+FFFF.
+     */
+    static int compareCodePoints(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+}
@@ -1,14 +1,15 @@
 package com.example.form_flow_backend.repository;
 
+import com.example.form_flow_backend.DTO.QuestionDTO;
 import com.example.form_flow_backend.model.Question;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
-import java.util.Optional;
 
-public interface QuestionRepository extends JpaRepository<Question, Long> {
-    Optional<List<Question>> findBySurveyId(Long surveyId);
-    @Transactional
-    void deleteBySurveyId(Long surveyId);
+public interface QuestionRepository extends JpaRepository<Question, Long>, QuestionRepositoryCustom {
+    @Query("SELECT new com.example.form_flow_backend.DTO.QuestionDTO(q.id, q.type, q.question_order, q.description, q.body) "
+            + "FROM Question q WHERE q.survey.id = :surveyId ORDER BY q.question_order, q.id")
+    List<QuestionDTO> findDetailsBySurveyId(@Param("surveyId") Long surveyId);
 }
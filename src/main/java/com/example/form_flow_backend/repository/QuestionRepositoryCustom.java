@@ -0,0 +1,20 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.DTO.QuestionChanges;
+import com.example.form_flow_backend.model.Question;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface QuestionRepositoryCustom {
+    /**
+     * Makes the survey's questions equal to the incoming list, writing only the differences, in one transaction.
+     * Incoming questions are matched to stored ones by id, then by question_order; matched rows are updated
+     * if any field changed, unmatched incoming questions are inserted and unmatched stored ones deleted.
+     *
+     * @return empty if the survey's questionsVersion is no longer expectedVersion; nothing is written then
+     */
+    @Transactional
+    Optional<QuestionChanges> applyChanges(Long surveyId, long expectedVersion, List<Question> incoming);
+}
@@ -0,0 +1,151 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.DTO.QuestionChanges;
+import com.example.form_flow_backend.model.Question;
+import com.example.form_flow_backend.model.Survey;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+public class QuestionRepositoryCustomImpl implements QuestionRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO questions (survey_id, type, question_order, description, body) VALUES (?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QuestionRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<QuestionChanges> applyChanges(Long surveyId, long expectedVersion, List<Question> incoming) {
+        // 1. 先做带条件的版本号自增：失败说明已被他人修改；成功则持有该行锁直到提交
+        int bumped = entityManager.createQuery(
+                        "UPDATE Survey s SET s.questionsVersion = s.questionsVersion + 1 "
+                                + "WHERE s.id = :id AND s.questionsVersion = :expected")
+                .setParameter("id", surveyId)
+                .setParameter("expected", expectedVersion)
+                .executeUpdate();
+        if (bumped == 0) {
+            return Optional.empty();
+        }
+
+        // 2. 加载现有问题
+        List<Question> stored = entityManager.createQuery(
+                        "SELECT q FROM Question q WHERE q.survey.id = :surveyId ORDER BY q.question_order, q.id",
+                        Question.class)
+                .setParameter("surveyId", surveyId)
+                .getResultList();
+        Map<Long, Question> unmatchedById = new LinkedHashMap<>();
+        for (Question question : stored) {
+            unmatchedById.put(question.getId(), question);
+        }
+
+        // 3. 先按 id 匹配，再按 question_order 匹配剩下的
+        Question[] matches = new Question[incoming.size()];
+        for (int i = 0; i < incoming.size(); i++) {
+            Long id = incoming.get(i).getId();
+            if (id != null) {
+                matches[i] = unmatchedById.remove(id);
+            }
+        }
+        Map<Integer, Question> unmatchedByOrder = new HashMap<>();
+        for (Question question : unmatchedById.values()) {
+            unmatchedByOrder.putIfAbsent(question.getQuestion_order(), question);
+        }
+        for (int i = 0; i < incoming.size(); i++) {
+            if (matches[i] == null) {
+                Question byOrder = unmatchedByOrder.remove(incoming.get(i).getQuestion_order());
+                if (byOrder != null) {
+                    unmatchedById.remove(byOrder.getId());
+                    matches[i] = byOrder;
+                }
+            }
+        }
+
+        // 4. 只写出差异：更新靠脏检查（提交时按批次 flush），多余的 remove，新增走 JDBC 批量插入
+        Survey survey = entityManager.getReference(Survey.class, surveyId);
+        List<Question> result = new ArrayList<>(incoming.size());
+        List<Question> toInsert = new ArrayList<>();
+        int updated = 0;
+        for (int i = 0; i < incoming.size(); i++) {
+            Question source = incoming.get(i);
+            Question target = matches[i];
+            if (target == null) {
+                // 不属于本问卷的 id 一律当作新问题
+                source.setId(null);
+                source.setSurvey(survey);
+                toInsert.add(source);
+                result.add(source);
+                continue;
+            }
+            if (copyIfChanged(source, target)) {
+                updated++;
+            }
+            result.add(target);
+        }
+        for (Question orphan : unmatchedById.values()) {
+            entityManager.remove(orphan);
+        }
+        batchInsert(surveyId, toInsert);
+
+        return Optional.of(new QuestionChanges(toInsert.size(), updated, unmatchedById.size(),
+                expectedVersion + 1, result));
+    }
+
+    /**
+     * One JDBC batch (a multi-row INSERT with rewriteBatchedStatements) instead of a round trip per
+     * persist; the IDENTITY ids are read back into the questions. The rows are not managed entities.
+     */
+    private void batchInsert(Long surveyId, List<Question> questions) {
+        if (questions.isEmpty()) {
+            return;
+        }
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Question question = questions.get(i);
+                        ps.setLong(1, surveyId);
+                        ps.setString(2, question.getType());
+                        ps.setObject(3, question.getQuestion_order());
+                        ps.setString(4, question.getDescription());
+                        ps.setString(5, question.getBody());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return questions.size();
+                    }
+                }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < questions.size(); i++) {
+            questions.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    private static boolean copyIfChanged(Question source, Question target) {
+        if (Objects.equals(source.getType(), target.getType())
+                && Objects.equals(source.getQuestion_order(), target.getQuestion_order())
+                && Objects.equals(source.getDescription(), target.getDescription())
+                && Objects.equals(source.getBody(), target.getBody())) {
+            return false;
+        }
+        target.setType(source.getType());
+        target.setQuestion_order(source.getQuestion_order());
+        target.setDescription(source.getDescription());
+        target.setBody(source.getBody());
+        return true;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.model.RevokedToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    List<RevokedToken> findByExpirationDateAfter(Date now);
+
+    @Query("SELECT r.id FROM RevokedToken r WHERE r.expirationDate < :now")
+    List<Long> findExpiredIds(@Param("now") Date now, Pageable pageable);
+}
@@ -1,11 +1,32 @@
 package com.example.form_flow_backend.repository;
 
 import com.example.form_flow_backend.model.Session;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 public interface SessionRepository extends JpaRepository<Session, Long> {
     Optional<Session> findBySessionToken(String sessionToken);
+    @Transactional
     void deleteBySessionToken(String sessionToken);
+
+    // 只取 id，按 expirationDate 索引扫描，配合 Pageable 限制每批数量
+    @Query("SELECT s.id FROM Session s WHERE s.expirationDate < :now")
+    List<Long> findExpiredIds(@Param("now") Date now, Pageable pageable);
+
+    // 批量延长过期时间，只会往后推，不会缩短
+    @Modifying
+    @Transactional
+    @Query("UPDATE Session s SET s.expirationDate = :expirationDate "
+            + "WHERE s.sessionToken IN :tokens AND s.expirationDate < :expirationDate")
+    int extendExpiration(@Param("tokens") Collection<String> tokens,
+                         @Param("expirationDate") Date expirationDate);
 }
@@ -1,10 +1,59 @@
 package com.example.form_flow_backend.repository;
 
+import com.example.form_flow_backend.DTO.SurveySummary;
 import com.example.form_flow_backend.model.Survey;
-import com.example.form_flow_backend.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * The *Page queries are keyset-paginated: they return surveys with id greater than afterId in id order.
+ * A non-null pattern is a lower-case LIKE pattern that uses '!' as its escape character.
+ */
 public interface SurveyRepository extends JpaRepository<Survey, Long> {
-    List<Survey> findAllByUser(User user);
+    @Query("SELECT s.questionsVersion FROM Survey s WHERE s.id = :id")
+    Optional<Long> findQuestionsVersionById(@Param("id") Long id);
+
+    @Query("SELECT s.id AS id, s.surveyName AS surveyName, s.description AS description FROM Survey s "
+            + "WHERE s.user.id = :userId AND s.id > :afterId "
+            + "AND (:pattern IS NULL OR LOWER(s.surveyName) LIKE :pattern ESCAPE '!') "
+            + "ORDER BY s.id")
+    List<SurveySummary> findOwnedPage(@Param("userId") Long userId, @Param("afterId") Long afterId,
+                                      @Param("pattern") String pattern, Limit limit);
+
+    @Query("SELECT COUNT(s) FROM Survey s WHERE s.user.id = :userId "
+            + "AND (:pattern IS NULL OR LOWER(s.surveyName) LIKE :pattern ESCAPE '!')")
+    long countOwned(@Param("userId") Long userId, @Param("pattern") String pattern);
+
+    /**
+     * Non-public surveys granted to the user that the user does not own, driven by the access (user_id, survey_id)
+     * index; owned surveys come from findOwnedPage and other users' public surveys from PublicSurveyCache.
+     */
+    @Query("SELECT s.id AS id, s.surveyName AS surveyName, s.description AS description FROM Access a JOIN a.survey s "
+            + "WHERE a.user.id = :userId AND a.survey.id > :afterId "
+            + "AND s.publicSurvey = false AND s.user.id <> :userId "
+            + "AND (:pattern IS NULL OR LOWER(s.surveyName) LIKE :pattern ESCAPE '!') "
+            + "ORDER BY a.survey.id")
+    List<SurveySummary> findGrantedPage(@Param("userId") Long userId, @Param("afterId") Long afterId,
+                                        @Param("pattern") String pattern, Limit limit);
+
+    @Query("SELECT COUNT(a) FROM Access a JOIN a.survey s "
+            + "WHERE a.user.id = :userId AND s.publicSurvey = false AND s.user.id <> :userId "
+            + "AND (:pattern IS NULL OR LOWER(s.surveyName) LIKE :pattern ESCAPE '!')")
+    long countGranted(@Param("userId") Long userId, @Param("pattern") String pattern);
+
+    /**
+     * Public surveys the user owns; these are counted by both countOwned and PublicSurveyCache.
+     */
+    @Query("SELECT COUNT(s) FROM Survey s WHERE s.user.id = :userId AND s.publicSurvey = true "
+            + "AND (:pattern IS NULL OR LOWER(s.surveyName) LIKE :pattern ESCAPE '!')")
+    long countOwnedPublic(@Param("userId") Long userId, @Param("pattern") String pattern);
+
+    @Query("SELECT s.id AS id, s.surveyName AS surveyName, s.description AS description FROM Survey s "
+            + "WHERE s.publicSurvey = true ORDER BY s.id")
+    List<SurveySummary> findPublicSummaries();
 }
@@ -0,0 +1,19 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.DTO.AnswerCount;
+import com.example.form_flow_backend.model.TakeAnswer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface TakeAnswerRepository extends JpaRepository<TakeAnswer, Long> {
+    /**
+     * Counts every take's options in the database (an index-only GROUP BY); only one row per distinct answer is returned.
+     */
+    @Query("SELECT new com.example.form_flow_backend.DTO.AnswerCount(a.survey.id, a.questionOrder, a.answer, COUNT(a)) "
+            + "FROM TakeAnswer a WHERE a.survey.id = :surveyId "
+            + "GROUP BY a.survey.id, a.questionOrder, a.answer ORDER BY a.questionOrder, a.answer")
+    List<AnswerCount> countAnswersBySurveyId(@Param("surveyId") Long surveyId);
+}
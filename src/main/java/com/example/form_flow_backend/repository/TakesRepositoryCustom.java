@@ -0,0 +1,21 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.model.Takes;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+public interface TakesRepositoryCustom {
+    /**
+     * Inserts the take and one take_answers row per chosen option, in one transaction.
+     */
+    @Transactional
+    Takes saveWithAnswers(Takes take);
+
+    /**
+     * Only the answer strings of the survey's takes, read forward-only with the stats.aggregate.fetch-size
+     * fetch size and nothing kept in the persistence context. Must be consumed inside a (read-only)
+     * transaction and closed.
+     */
+    Stream<String> streamAnswersBySurveyId(Long surveyId);
+}
@@ -0,0 +1,60 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.model.Takes;
+import com.example.form_flow_backend.service.AnswerTokenizer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class TakesRepositoryCustomImpl implements TakesRepositoryCustom {
+
+    private static final String INSERT_ANSWER_SQL =
+            "INSERT INTO take_answers (take_id, survey_id, question_order, answer) VALUES (?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int streamFetchSize;
+
+    public TakesRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                     @Value("${stats.aggregate.fetch-size:1000}") int streamFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    @Override
+    public Takes saveWithAnswers(Takes take) {
+        // 1. IDENTITY 主键：persist 立即 INSERT，拿到 take id
+        entityManager.persist(take);
+
+        // 2. 拆分答案，一个 JDBC 批次写入 take_answers
+        List<Object[]> rows = new ArrayList<>();
+        Long takeId = take.getId();
+        Long surveyId = take.getSurvey().getId();
+        String answers = take.getAnswers();
+        AnswerTokenizer.forEachOption(answers, (questionOrder, source, start, end) ->
+                rows.add(new Object[]{takeId, surveyId, questionOrder, answers.substring(start, end)}));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ANSWER_SQL, rows);
+        }
+        return take;
+    }
+
+    @Override
+    public Stream<String> streamAnswersBySurveyId(Long surveyId) {
+        // 只有这条查询设置 fetch size；MySQL 上取 Integer.MIN_VALUE 时驱动逐行流式读取，不缓存整个结果集
+        return entityManager.createQuery("SELECT t.answers FROM Takes t WHERE t.survey.id = :surveyId", String.class)
+                .setParameter("surveyId", surveyId)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHEABLE, false)
+                .getResultStream();
+    }
+}
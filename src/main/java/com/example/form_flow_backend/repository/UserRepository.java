@@ -2,6 +2,8 @@ package com.example.form_flow_backend.repository;
 
 import com.example.form_flow_backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
@@ -9,8 +11,18 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Optional<User> findByUsername(String username);
     List<User> findByUsernameIn(Collection<String> usernames);
     Optional<User> findByEmail(String email);
+
+    // 批量查重：只取已存在的用户名 / 邮箱，不加载整个实体
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.id FROM User u WHERE u.username IN :usernames")
+    List<Long> findIdsByUsernameIn(@Param("usernames") Collection<String> usernames);
 }
@@ -0,0 +1,15 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.model.User;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+    /**
+     * Inserts the users with one JDBC batch, in a single transaction.
+     * Passwords must already be encoded; generated ids are not read back.
+     */
+    @Transactional
+    void batchInsert(List<User> users);
+}
@@ -0,0 +1,17 @@
+package com.example.form_flow_backend.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The caller of the current request, resolved once from the session token.
+ * Declare it as a controller handler parameter (after any {@code @RequestBody})
+ * and it is injected by {@link AuthenticatedUserArgumentResolver}.
+ */
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser {
+    private final Long id;
+    private final String username;
+    private final String sessionToken;
+}
@@ -0,0 +1,71 @@
+package com.example.form_flow_backend.security;
+
+import com.example.form_flow_backend.service.SessionService;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link AuthenticatedUser} handler parameters.
+ * If {@link SessionTokenAuthenticationFilter} already authenticated the request from the
+ * X-Session-Token header, that principal is reused; if the filter rejected the header, its
+ * failure is rethrown instead of authenticating again. Otherwise the session token is taken
+ * from the X-Session-Token header, or else from the
+ * "sessionToken" field of the JSON body (captured by {@link SessionTokenRequestBodyAdvice},
+ * so the AuthenticatedUser parameter must come after the @RequestBody parameter).
+ * The result is stored on the request, so the caller is authenticated only once per request.
+ */
+@Component
+public class AuthenticatedUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    public static final String SESSION_TOKEN_HEADER = "X-Session-Token";
+    static final String SESSION_TOKEN_ATTRIBUTE = AuthenticatedUserArgumentResolver.class.getName() + ".sessionToken";
+    static final String AUTHENTICATION_FAILURE_ATTRIBUTE =
+            AuthenticatedUserArgumentResolver.class.getName() + ".authenticationFailure";
+    private static final String AUTHENTICATED_USER_ATTRIBUTE = AuthenticatedUser.class.getName();
+
+    private final SessionService sessionService;
+
+    public AuthenticatedUserArgumentResolver(SessionService sessionService) {
+        this.sessionService = sessionService;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return AuthenticatedUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object resolved = webRequest.getAttribute(AUTHENTICATED_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser;
+        }
+
+        String sessionToken = webRequest.getHeader(SESSION_TOKEN_HEADER);
+        Object failure = webRequest.getAttribute(AUTHENTICATION_FAILURE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (sessionToken != null && failure instanceof AuthenticationFailedException e) {
+            throw e;
+        }
+        if (sessionToken == null) {
+            sessionToken = (String) webRequest.getAttribute(SESSION_TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        AuthenticatedUser authenticatedUser = sessionService.authenticate(sessionToken);
+        if (authenticatedUser != null) {
+            webRequest.setAttribute(AUTHENTICATED_USER_ATTRIBUTE, authenticatedUser, RequestAttributes.SCOPE_REQUEST);
+        }
+        return authenticatedUser;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.form_flow_backend.security;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when the caller of a request cannot be authenticated from its session token.
+ * Rendered as {"success": false, "message": ...} by {@link AuthenticationExceptionHandler}.
+ */
+@Getter
+public class AuthenticationFailedException extends RuntimeException {
+    private final HttpStatus status;
+
+    public AuthenticationFailedException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+}
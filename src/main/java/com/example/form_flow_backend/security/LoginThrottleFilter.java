@@ -0,0 +1,49 @@
+package com.example.form_flow_backend.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects throttled POST /auth/login requests with 429 before the authentication
+ * filter loads the user or runs BCrypt. Added to the security chain in SecurityConfig
+ * (deliberately not a bean, so it is not also registered as a servlet filter).
+ */
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private final LoginRateLimiter loginRateLimiter;
+    private final String loginUrl;
+
+    public LoginThrottleFilter(LoginRateLimiter loginRateLimiter, String loginUrl) {
+        this.loginRateLimiter = loginRateLimiter;
+        this.loginUrl = loginUrl;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !loginUrl.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // 客户端 IP 由 server.forward-headers-strategy 处理 X-Forwarded-For 后得到
+        long waitNanos = loginRateLimiter.tryAcquire(request.getParameter("username"), request.getRemoteAddr());
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            response.setStatus(429);
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            response.setContentType("application/json;charset=UTF-8");
+            response.getWriter().write(
+                    "{\"success\":false,\"message\":\"Too many login attempts, please retry later.\"}"
+            );
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.form_flow_backend.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Thrown when the password-hashing executor is saturated and a hash or
+ * verification could not be scheduled (or did not finish) in time.
+ * Callers answer with 503 so clients back off instead of piling on.
+ */
+public class PasswordHashingUnavailableException extends AuthenticationServiceException {
+
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
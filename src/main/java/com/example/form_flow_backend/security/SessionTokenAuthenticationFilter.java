@@ -0,0 +1,62 @@
+package com.example.form_flow_backend.security;
+
+import com.example.form_flow_backend.service.SessionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Authenticates requests carrying an X-Session-Token header by populating the
+ * SecurityContext with an {@link AuthenticatedUser} principal, so no HttpSession is
+ * needed to remember the caller. A missing header leaves the request anonymous and
+ * {@link AuthenticatedUserArgumentResolver} falls back to the token in the JSON body.
+ * An invalid header also leaves it anonymous, but the failure is stored on the request so
+ * the resolver rejects it without looking the token up a second time.
+ * Every caller gets ROLE_USER; usernames listed in security.operators also get ROLE_OPERATOR.
+ * Added to the security chain in SecurityConfig, not registered as a bean.
+ */
+public class SessionTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private final SessionService sessionService;
+    private final Set<String> operatorUsernames;
+
+    public SessionTokenAuthenticationFilter(SessionService sessionService) {
+        this(sessionService, Set.of());
+    }
+
+    public SessionTokenAuthenticationFilter(SessionService sessionService, Set<String> operatorUsernames) {
+        this.sessionService = sessionService;
+        this.operatorUsernames = operatorUsernames;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String sessionToken = request.getHeader(AuthenticatedUserArgumentResolver.SESSION_TOKEN_HEADER);
+        if (sessionToken != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                AuthenticatedUser authenticatedUser = sessionService.authenticate(sessionToken);
+                UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                        authenticatedUser, null, operatorUsernames.contains(authenticatedUser.getUsername())
+                                ? AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_OPERATOR")
+                                : AuthorityUtils.createAuthorityList("ROLE_USER"));
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+            } catch (AuthenticationFailedException e) {
+                // 交给后续的参数解析器返回统一的错误响应，解析器直接复用这次的失败结果
+                request.setAttribute(AuthenticatedUserArgumentResolver.AUTHENTICATION_FAILURE_ATTRIBUTE, e);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.form_flow_backend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed session tokens when session.token.mode=signed.
+ * A token is base64url(tokenId|userId|expiresAtMillis|username) + "." + base64url(hmac),
+ * so it can be validated without a database lookup.
+ * In the default "opaque" mode the codec is disabled and sessions stay random UUIDs
+ * stored in the sessions table.
+ */
+@Component
+public class SessionTokenCodec {
+
+    public static final String MODE_OPAQUE = "opaque";
+    public static final String MODE_SIGNED = "signed";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final boolean enabled;
+    private final ThreadLocal<Mac> mac;
+
+    public SessionTokenCodec(@Value("${session.token.mode:opaque}") String mode,
+                             @Value("${session.token.secret:}") String secret) {
+        this.enabled = MODE_SIGNED.equalsIgnoreCase(mode);
+        if (!enabled) {
+            this.mac = null;
+            return;
+        }
+
+        byte[] keyBytes = secret == null ? new byte[0] : Base64.getDecoder().decode(secret.trim());
+        if (keyBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException(
+                    "session.token.secret must be a base64 key of at least " + MIN_SECRET_BYTES
+                            + " bytes when session.token.mode=signed");
+        }
+        SecretKeySpec key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac m = Mac.getInstance(ALGORITHM);
+                m.init(key);
+                return m;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to initialise " + ALGORITHM, e);
+            }
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the token should be validated by signature rather than looked up.
+     * Opaque UUID tokens never contain a '.', so they keep working after the switch.
+     */
+    public boolean isSignedToken(String sessionToken) {
+        return enabled && sessionToken != null && sessionToken.indexOf('.') > 0;
+    }
+
+    public String encode(SignedSessionClaims claims) {
+        String payload = claims.getTokenId() + "|" + claims.getUserId() + "|"
+                + claims.getExpirationDate().getTime() + "|" + claims.getUsername();
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * Verifies the signature and parses the token.
+     *
+     * @return the claims, or null if the token is malformed or the signature does not match.
+     *         Expiry is not checked here.
+     */
+    public SignedSessionClaims decode(String sessionToken) {
+        if (!isSignedToken(sessionToken)) {
+            return null;
+        }
+        int dot = sessionToken.indexOf('.');
+        try {
+            byte[] payloadBytes = DECODER.decode(sessionToken.substring(0, dot));
+            byte[] signature = DECODER.decode(sessionToken.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+                return null;
+            }
+
+            String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|", 4);
+            if (parts.length != 4) {
+                return null;
+            }
+            return new SignedSessionClaims(parts[0], Long.valueOf(parts[1]),
+                    parts[3], new Date(Long.parseLong(parts[2])));
+        } catch (IllegalArgumentException e) {
+            // 非法 base64 或数字
+            return null;
+        }
+    }
+
+    private byte[] sign(byte[] payloadBytes) {
+        return mac.get().doFinal(payloadBytes);
+    }
+}
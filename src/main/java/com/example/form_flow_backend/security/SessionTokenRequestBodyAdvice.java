@@ -0,0 +1,46 @@
+package com.example.form_flow_backend.security;
+
+import com.example.form_flow_backend.DTO.SessionTokenRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * Captures the "sessionToken" field of a JSON request body as it is read, so that
+ * {@link AuthenticatedUserArgumentResolver} can authenticate the caller without
+ * reading the body a second time.
+ */
+@ControllerAdvice
+public class SessionTokenRequestBodyAdvice extends RequestBodyAdviceAdapter {
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        String sessionToken = null;
+        if (body instanceof SessionTokenRequest request) {
+            sessionToken = request.getSessionToken();
+        } else if (body instanceof Map<?, ?> map && map.get("sessionToken") instanceof String token) {
+            sessionToken = token;
+        }
+        if (sessionToken != null) {
+            RequestContextHolder.currentRequestAttributes().setAttribute(
+                    AuthenticatedUserArgumentResolver.SESSION_TOKEN_ATTRIBUTE,
+                    sessionToken,
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.form_flow_backend.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * The contents of a signed session token, see {@link SessionTokenCodec}.
+ */
+@Getter
+@AllArgsConstructor
+public class SignedSessionClaims {
+    private final String tokenId;
+    private final Long userId;
+    private final String username;
+    private final Date expirationDate;
+}
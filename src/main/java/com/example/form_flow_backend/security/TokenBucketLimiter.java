@@ -0,0 +1,64 @@
+package com.example.form_flow_backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket per key, implemented as GCRA: each bucket is a single AtomicLong
+ * holding the "theoretical arrival time" and is updated with CAS, so concurrent attempts
+ * never block each other.
+ * Buckets live in a size-bounded Caffeine cache and expire after refillPeriod without
+ * access; a bucket idle that long is full again, so evicting it loses no state.
+ */
+class TokenBucketLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+
+    TokenBucketLimiter(int capacity, Duration refillPeriod, long maxKeys, LongSupplier nanoClock) {
+        // 每 emissionInterval 补充一个令牌，桶满时最多允许 capacity 次连续请求
+        this.emissionIntervalNanos = refillPeriod.toNanos() / capacity;
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(refillPeriod.toNanos(), TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    /**
+     * Takes one token for the key.
+     *
+     * @return 0 if the attempt is allowed, otherwise nanoseconds until the next token
+     */
+    long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long tat = bucket.get();
+            long earliest = tat - burstToleranceNanos;
+            if (now - earliest < 0) {
+                return earliest - now;
+            }
+            long newTat = Math.max(tat, now) + emissionIntervalNanos;
+            if (bucket.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    long estimatedSize() {
+        return buckets.estimatedSize();
+    }
+
+    void cleanUp() {
+        buckets.cleanUp();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.form_flow_backend.security;
+
+import com.example.form_flow_backend.model.RevokedToken;
+import com.example.form_flow_backend.repository.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory set of revoked signed-token ids.
+ * A Bloom filter answers the common "not revoked" case without touching the exact set;
+ * only possible hits are confirmed against the exact map (tokenId -> expiry millis).
+ * The set is rebuilt from the revoked_tokens table at startup and re-synced periodically,
+ * so a logout on another node is honoured here within session.token.revocation-sync-interval.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+    private static final int MIN_EXPECTED_ENTRIES = 1024;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final SessionTokenCodec sessionTokenCodec;
+
+    private volatile Snapshot snapshot = new Snapshot(MIN_EXPECTED_ENTRIES);
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository, SessionTokenCodec sessionTokenCodec) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.sessionTokenCodec = sessionTokenCodec;
+    }
+
+    /**
+     * Records the token as revoked, both in the database (for other nodes and restarts)
+     * and in memory. Revoking a token that is already revoked does nothing.
+     */
+    public void revoke(String tokenId, Date expirationDate) {
+        if (isRevoked(tokenId)) {
+            return;
+        }
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setTokenId(tokenId);
+        revokedToken.setExpirationDate(expirationDate);
+        try {
+            revokedTokenRepository.save(revokedToken);
+        } catch (DataIntegrityViolationException e) {
+            // 另一节点（或并发请求）已写入同一 token_id，本节点尚未同步到
+            log.debug("Token {} was already revoked", tokenId);
+        }
+        snapshot.add(tokenId, expirationDate.getTime());
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return snapshot.contains(tokenId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (sessionTokenCodec.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${session.token.revocation-sync-interval:PT30S}",
+            initialDelayString = "${session.token.revocation-sync-interval:PT30S}")
+    public void resync() {
+        if (sessionTokenCodec.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Replaces the in-memory set with the unexpired rows of revoked_tokens.
+     * Entries revoked locally while the query ran are carried over, and expired
+     * entries are dropped so the filter does not fill up over time.
+     */
+    public void rebuild() {
+        long now = System.currentTimeMillis();
+        List<RevokedToken> revokedTokens = revokedTokenRepository.findByExpirationDateAfter(new Date(now));
+
+        Snapshot previous = snapshot;
+        Snapshot next = new Snapshot(Math.max(MIN_EXPECTED_ENTRIES, 2 * (revokedTokens.size() + previous.size())));
+        for (RevokedToken revokedToken : revokedTokens) {
+            next.add(revokedToken.getTokenId(), revokedToken.getExpirationDate().getTime());
+        }
+        previous.copyUnexpiredTo(next, now);
+        snapshot = next;
+
+        log.debug("Rebuilt token revocation list with {} entries", next.size());
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    private static final class Snapshot {
+        private final BloomFilter bloomFilter;
+        private final Map<String, Long> exact = new ConcurrentHashMap<>();
+
+        private Snapshot(int expectedEntries) {
+            this.bloomFilter = new BloomFilter(expectedEntries);
+        }
+
+        private void add(String tokenId, long expiresAtMillis) {
+            // 先写精确集合，再写 Bloom filter，保证 Bloom 命中时精确集合里一定已有该项
+            exact.put(tokenId, expiresAtMillis);
+            bloomFilter.add(tokenId);
+        }
+
+        private boolean contains(String tokenId) {
+            return bloomFilter.mightContain(tokenId) && exact.containsKey(tokenId);
+        }
+
+        private void copyUnexpiredTo(Snapshot target, long now) {
+            exact.forEach((tokenId, expiresAtMillis) -> {
+                if (expiresAtMillis > now) {
+                    target.add(tokenId, expiresAtMillis);
+                }
+            });
+        }
+
+        private int size() {
+            return exact.size();
+        }
+    }
+
+    /**
+     * Fixed-size Bloom filter, about 10 bits and 7 probes per expected entry (~1% false positives).
+     */
+    private static final class BloomFilter {
+        private static final int BITS_PER_ENTRY = 10;
+        private static final int HASH_COUNT = 7;
+
+        private final AtomicLongArray words;
+        private final long bitCount;
+
+        private BloomFilter(int expectedEntries) {
+            int wordCount = (int) Math.max(1, ((long) expectedEntries * BITS_PER_ENTRY + 63) / 64);
+            this.words = new AtomicLongArray(wordCount);
+            this.bitCount = (long) wordCount * 64;
+        }
+
+        private void add(String value) {
+            long h1 = value.hashCode();
+            long h2 = mix(h1);
+            for (int i = 0; i < HASH_COUNT; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        private boolean mightContain(String value) {
+            long h1 = value.hashCode();
+            long h2 = mix(h1);
+            for (int i = 0; i < HASH_COUNT; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            return h | 1;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.DTO.AnswerCount;
+import com.example.form_flow_backend.repository.AnswerCounterRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-survey, per-question, per-answer take counters.
+ * takeSurvey increments in-memory LongAdders (no locks, no SQL); a scheduled flush adds the
+ * accumulated deltas to the answer_counters table. Reads combine the table with this node's
+ * unflushed deltas, so other nodes' takes show up within stats.counters.flush-interval.
+ */
+@Component
+public class AnswerCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerCounters.class);
+
+    private final AnswerCounterRepository answerCounterRepository;
+
+    // 正在累加的一代；flush 时整体换新，旧的一代在下一次 flush 时再扫一遍，收尾迟到的 increment
+    private volatile Map<Long, Map<QuestionAnswer, LongAdder>> active = new ConcurrentHashMap<>();
+    private volatile Map<Long, Map<QuestionAnswer, LongAdder>> retired = Map.of();
+
+    public AnswerCounters(AnswerCounterRepository answerCounterRepository) {
+        this.answerCounterRepository = answerCounterRepository;
+    }
+
+    /**
+     * Splits one take's answers the way statistics always have: ';' between questions,
+     * ',' between the options chosen for one question. Question orders start at 1.
+     * Allocates one String per option; counting loops use {@link AnswerTokenizer} directly.
+     */
+    public static void forEachAnswer(String answers, AnswerVisitor visitor) {
+        AnswerTokenizer.forEachOption(answers, (questionOrder, source, start, end) ->
+                visitor.visit(questionOrder, answers.substring(start, end)));
+    }
+
+    @FunctionalInterface
+    public interface AnswerVisitor {
+        void visit(int questionOrder, String answer);
+    }
+
+    /**
+     * Counts one take.
+     */
+    public void record(long surveyId, String answers) {
+        Map<QuestionAnswer, LongAdder> counters = active.computeIfAbsent(surveyId, id -> new ConcurrentHashMap<>());
+        forEachAnswer(answers, (questionOrder, answer) ->
+                counters.computeIfAbsent(new QuestionAnswer(questionOrder, answer), key -> new LongAdder()).increment());
+    }
+
+    /**
+     * Counts for the survey by question order (ascending), then answer. Empty if the survey has no takes.
+     */
+    public SortedMap<Integer, Map<String, Long>> countsFor(long surveyId) {
+        SortedMap<Integer, Map<String, Long>> counts = new TreeMap<>();
+        for (AnswerCount row : answerCounterRepository.findCountsBySurveyId(surveyId)) {
+            counts.computeIfAbsent(row.getQuestionOrder(), order -> new HashMap<>())
+                    .merge(row.getAnswer(), row.getCount(), Long::sum);
+        }
+        addPending(counts, retired.get(surveyId));
+        addPending(counts, active.get(surveyId));
+        return counts;
+    }
+
+    private static void addPending(SortedMap<Integer, Map<String, Long>> counts, Map<QuestionAnswer, LongAdder> pending) {
+        if (pending == null) {
+            return;
+        }
+        pending.forEach((key, adder) -> {
+            long value = adder.sum();
+            if (value != 0) {
+                counts.computeIfAbsent(key.questionOrder(), order -> new HashMap<>())
+                        .merge(key.answer(), value, Long::sum);
+            }
+        });
+    }
+
+    /**
+     * Writes the accumulated deltas. On failure they are put back and retried on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${stats.counters.flush-interval:PT5S}")
+    public synchronized void flush() {
+        Map<Long, Map<QuestionAnswer, LongAdder>> previous = retired;
+        retired = active;
+        active = new ConcurrentHashMap<>();
+
+        List<AnswerCount> deltas = new ArrayList<>();
+        drain(previous, deltas);
+        drain(retired, deltas);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            answerCounterRepository.addCounts(deltas);
+            log.debug("Flushed {} answer counter deltas", deltas.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not flush {} answer counter deltas, will retry", deltas.size(), e);
+            for (AnswerCount delta : deltas) {
+                active.computeIfAbsent(delta.getSurveyId(), id -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(new QuestionAnswer(delta.getQuestionOrder(), delta.getAnswer()), key -> new LongAdder())
+                        .add(delta.getCount());
+            }
+        }
+    }
+
+    private static void drain(Map<Long, Map<QuestionAnswer, LongAdder>> generation, List<AnswerCount> deltas) {
+        generation.forEach((surveyId, counters) -> counters.forEach((key, adder) -> {
+            long value = adder.sumThenReset();
+            if (value != 0) {
+                deltas.add(new AnswerCount(surveyId, key.questionOrder(), key.answer(), value));
+            }
+        }));
+    }
+
+    /**
+     * Flushes both generations so that nothing counted on this node is lost on a clean shutdown.
+     */
+    @PreDestroy
+    public void flushAll() {
+        flush();
+        flush();
+    }
+
+    private record QuestionAnswer(int questionOrder, String answer) {
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.form_flow_backend.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * question order -> option -> count, for counting many takes on one thread.
+ * Each question interns its options in its own open-addressing table, next to primitive
+ * long counters; a take is scanned with {@link AnswerTokenizer} and looked up by char range,
+ * so counting an option that was seen before allocates nothing. Boxed maps are only built by
+ * {@link #toCounts()}.
+ */
+final class AnswerHistogram implements AnswerTokenizer.OptionVisitor {
+
+    private OptionCounts[] questions = new OptionCounts[8];
+
+    void add(CharSequence take) {
+        AnswerTokenizer.forEachOption(take, this);
+    }
+
+    @Override
+    public void visit(int questionOrder, CharSequence answers, int start, int end) {
+        question(questionOrder).increment(answers, start, end);
+    }
+
+    /**
+     * Adds the other histogram's counts to this one.
+     */
+    void merge(AnswerHistogram other) {
+        for (int i = 0; i < other.questions.length; i++) {
+            OptionCounts theirs = other.questions[i];
+            if (theirs == null) {
+                continue;
+            }
+            OptionCounts mine = question(i + 1);
+            for (int option = 0; option < theirs.size; option++) {
+                String key = theirs.keys[option];
+                int index = mine.slotOf(key, 0, key.length(), theirs.hashes[option]);
+                mine.counts[index] += theirs.counts[option];
+            }
+        }
+    }
+
+    /**
+     * Question order (ascending) -> option (ascending) -> count; sorted so the result does not
+     * depend on the order takes were counted or histograms merged in.
+     */
+    SortedMap<Integer, Map<String, Long>> toCounts() {
+        SortedMap<Integer, Map<String, Long>> counts = new TreeMap<>();
+        for (int i = 0; i < questions.length; i++) {
+            OptionCounts question = questions[i];
+            if (question == null) {
+                continue;
+            }
+            Map<String, Long> options = new TreeMap<>();
+            for (int option = 0; option < question.size; option++) {
+                options.put(question.keys[option], question.counts[option]);
+            }
+            counts.put(i + 1, options);
+        }
+        return counts;
+    }
+
+    private OptionCounts question(int questionOrder) {
+        int index = questionOrder - 1;
+        if (index >= questions.length) {
+            questions = Arrays.copyOf(questions, Math.max(questions.length * 2, questionOrder));
+        }
+        OptionCounts question = questions[index];
+        if (question == null) {
+            question = new OptionCounts();
+            questions[index] = question;
+        }
+        return question;
+    }
+
+    /**
+     * Options of one question in first-seen order; slots holds option index + 1, 0 for empty.
+     */
+    private static final class OptionCounts {
+        private String[] keys = new String[8];
+        private int[] hashes = new int[8];
+        private long[] counts = new long[8];
+        private int[] slots = new int[16];
+        private int size;
+
+        private void increment(CharSequence answers, int start, int end) {
+            // 先定位再取数组：新选项可能让 counts 扩容
+            int option = slotOf(answers, start, end, hash(answers, start, end));
+            counts[option]++;
+        }
+
+        /**
+         * Index of the option, added with a zero count if it is new.
+         */
+        private int slotOf(CharSequence answers, int start, int end, int hash) {
+            int mask = slots.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int option = slots[slot] - 1;
+                if (option < 0) {
+                    return insert(answers.subSequence(start, end).toString(), hash, slot);
+                }
+                if (hashes[option] == hash && contentEquals(keys[option], answers, start, end)) {
+                    return option;
+                }
+            }
+        }
+
+        private int insert(String key, int hash, int slot) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            int option = size++;
+            keys[option] = key;
+            hashes[option] = hash;
+            slots[slot] = option + 1;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+            return option;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int option = 0; option < size; option++) {
+                int slot = hashes[option] & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = option + 1;
+            }
+        }
+
+        private static int hash(CharSequence answers, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + answers.charAt(i);
+            }
+            // 同 HashMap：把高位混进低位，slot 只取低位
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean contentEquals(String key, CharSequence answers, int start, int end) {
+            if (key.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length(); i++) {
+                if (key.charAt(i) != answers.charAt(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.form_flow_backend.service;
+
+/**
+ * Scans a take's answers in place: ';' between questions, ',' between the options chosen for one
+ * question, question orders starting at 1. Options are reported as [start, end) ranges of the input,
+ * so scanning allocates nothing.
+ * <p>
+ * The result is exactly what answers.split(";") followed by split(",") produced before: trailing
+ * empty pieces are dropped, and a piece without any separator is reported even when it is empty.
+ */
+public final class AnswerTokenizer {
+
+    private AnswerTokenizer() {
+    }
+
+    @FunctionalInterface
+    public interface OptionVisitor {
+        void visit(int questionOrder, CharSequence answers, int start, int end);
+    }
+
+    public static void forEachOption(CharSequence answers, OptionVisitor visitor) {
+        int end = trimTrailing(answers, 0, answers.length(), ';');
+        if (end < 0) {
+            return;
+        }
+        int questionOrder = 1;
+        int start = 0;
+        for (int i = 0; i < end; i++) {
+            if (answers.charAt(i) == ';') {
+                forEachOptionOfQuestion(answers, start, i, questionOrder++, visitor);
+                start = i + 1;
+            }
+        }
+        forEachOptionOfQuestion(answers, start, end, questionOrder, visitor);
+    }
+
+    private static void forEachOptionOfQuestion(CharSequence answers, int from, int to, int questionOrder,
+                                                OptionVisitor visitor) {
+        int end = trimTrailing(answers, from, to, ',');
+        if (end < 0) {
+            return;
+        }
+        int start = from;
+        for (int i = from; i < end; i++) {
+            if (answers.charAt(i) == ',') {
+                visitor.visit(questionOrder, answers, start, i);
+                start = i + 1;
+            }
+        }
+        visitor.visit(questionOrder, answers, start, end);
+    }
+
+    /**
+     * End of [from, to) without its trailing separators, like String.split. A range without any
+     * separator is kept whole; -1 if the range contains separators and nothing else.
+     */
+    private static int trimTrailing(CharSequence answers, int from, int to, char separator) {
+        int end = to;
+        while (end > from && answers.charAt(end - 1) == separator) {
+            end--;
+        }
+        if (end == to) {
+            return to;
+        }
+        return end == from ? -1 : end;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.model.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link SessionStore} kept in memory on this node, for single-node deployments.
+ * Sessions are spread over a fixed number of ConcurrentHashMap stripes by token hash,
+ * so writers on different stripes never contend and a snapshot can copy one stripe at a time.
+ * Every session.store.memory.snapshot-interval (and on shutdown) unexpired sessions are
+ * written to session.store.memory.snapshot-path (temp file + atomic rename) if anything
+ * changed; the file is loaded again on startup. Sessions created after the last snapshot
+ * are lost on a crash.
+ */
+@Component
+@ConditionalOnProperty(name = "session.store", havingValue = "memory")
+public class InMemorySessionStore implements SessionStore, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemorySessionStore.class);
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int STRIPES = 16;
+
+    @SuppressWarnings("unchecked")
+    private final Map<String, Session>[] stripes = new Map[STRIPES];
+    private final AtomicLong idSequence = new AtomicLong();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final Path snapshotPath;
+
+    public InMemorySessionStore(@Value("${session.store.memory.snapshot-path:session-snapshot.bin}") Path snapshotPath) {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.snapshotPath = snapshotPath;
+        load();
+    }
+
+    private Map<String, Session> stripe(String sessionToken) {
+        return stripes[Math.floorMod(sessionToken.hashCode(), STRIPES)];
+    }
+
+    @Override
+    public Session save(Session session) {
+        if (session.getId() == null) {
+            session.setId(idSequence.incrementAndGet());
+        }
+        stripe(session.getSessionToken()).put(session.getSessionToken(), session);
+        dirty.set(true);
+        return session;
+    }
+
+    @Override
+    public Optional<Session> findBySessionToken(String sessionToken) {
+        return Optional.ofNullable(stripe(sessionToken).get(sessionToken));
+    }
+
+    @Override
+    public void deleteBySessionToken(String sessionToken) {
+        if (sessionToken != null && stripe(sessionToken).remove(sessionToken) != null) {
+            dirty.set(true);
+        }
+    }
+
+    @Override
+    public int extendExpiration(Collection<String> sessionTokens, Date expirationDate) {
+        int updated = 0;
+        for (String sessionToken : sessionTokens) {
+            Session session = stripe(sessionToken).computeIfPresent(sessionToken, (token, existing) -> {
+                if (existing.getExpirationDate().before(expirationDate)) {
+                    existing.setExpirationDate(expirationDate);
+                }
+                return existing;
+            });
+            if (session != null) {
+                updated++;
+            }
+        }
+        if (updated > 0) {
+            dirty.set(true);
+        }
+        return updated;
+    }
+
+    @Override
+    public int deleteExpiredBatch(Date now, int batchSize) {
+        int deleted = 0;
+        for (Map<String, Session> stripe : stripes) {
+            Iterator<Session> iterator = stripe.values().iterator();
+            while (iterator.hasNext() && deleted < batchSize) {
+                if (iterator.next().getExpirationDate().before(now)) {
+                    iterator.remove();
+                    deleted++;
+                }
+            }
+            if (deleted == batchSize) {
+                break;
+            }
+        }
+        if (deleted > 0) {
+            dirty.set(true);
+        }
+        return deleted;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, Session> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Writes unexpired sessions to the snapshot file if anything changed since the last snapshot.
+     */
+    @Scheduled(fixedDelayString = "${session.store.memory.snapshot-interval:PT1M}",
+            initialDelayString = "${session.store.memory.snapshot-interval:PT1M}")
+    public void snapshot() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Path tempFile = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try {
+            if (snapshotPath.getParent() != null) {
+                Files.createDirectories(snapshotPath.getParent());
+            }
+            int written = 0;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(SNAPSHOT_VERSION);
+                for (Map<String, Session> stripe : stripes) {
+                    for (Session session : stripe.values()) {
+                        long expiresAt = session.getExpirationDate().getTime();
+                        if (expiresAt <= now) {
+                            continue;
+                        }
+                        out.writeBoolean(true);
+                        out.writeUTF(session.getSessionToken());
+                        out.writeUTF(session.getUsername());
+                        out.writeLong(expiresAt);
+                        written++;
+                    }
+                }
+                out.writeBoolean(false);
+            }
+            Files.move(tempFile, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote {} sessions to {}", written, snapshotPath);
+        } catch (IOException e) {
+            // 下次再试
+            dirty.set(true);
+            log.warn("Failed to write session snapshot {}", snapshotPath, e);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring session snapshot {} with unknown version", snapshotPath);
+                return;
+            }
+            while (in.readBoolean()) {
+                Session session = new Session();
+                session.setSessionToken(in.readUTF());
+                session.setUsername(in.readUTF());
+                session.setExpirationDate(new Date(in.readLong()));
+                if (session.getExpirationDate().getTime() > now) {
+                    save(session);
+                    loaded++;
+                }
+            }
+            dirty.set(false);
+            log.info("Loaded {} sessions from {}", loaded, snapshotPath);
+        } catch (IOException e) {
+            log.warn("Failed to read session snapshot {}, starting with {} sessions", snapshotPath, loaded, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        snapshot();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.model.Session;
+import com.example.form_flow_backend.repository.SessionRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link SessionStore} backed by the sessions table.
+ */
+@Component
+@ConditionalOnProperty(name = "session.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaSessionStore implements SessionStore {
+
+    private final SessionRepository sessionRepository;
+
+    public JpaSessionStore(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+    }
+
+    @Override
+    public Session save(Session session) {
+        return sessionRepository.save(session);
+    }
+
+    @Override
+    public Optional<Session> findBySessionToken(String sessionToken) {
+        return sessionRepository.findBySessionToken(sessionToken);
+    }
+
+    @Override
+    public void deleteBySessionToken(String sessionToken) {
+        sessionRepository.deleteBySessionToken(sessionToken);
+    }
+
+    @Override
+    public int extendExpiration(Collection<String> sessionTokens, Date expirationDate) {
+        return sessionRepository.extendExpiration(sessionTokens, expirationDate);
+    }
+
+    @Override
+    public int deleteExpiredBatch(Date now, int batchSize) {
+        // 先按 expirationDate 索引取一批 id，再 DELETE ... WHERE id IN，每批一个短事务
+        List<Long> ids = sessionRepository.findExpiredIds(now, PageRequest.of(0, batchSize));
+        if (!ids.isEmpty()) {
+            sessionRepository.deleteAllByIdInBatch(ids);
+        }
+        return ids.size();
+    }
+}
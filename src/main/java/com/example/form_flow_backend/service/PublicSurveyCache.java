@@ -0,0 +1,166 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.DTO.SurveySummary;
+import com.example.form_flow_backend.repository.SurveyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory, id-ordered set of public surveys, so that every accessible-survey listing does not
+ * have to scan them in the database. It is loaded at startup and reloaded periodically; surveys made
+ * public on another node appear here within survey.public-cache.refresh-interval, those created on
+ * this node immediately.
+ */
+@Component
+public class PublicSurveyCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PublicSurveyCache.class);
+
+    private final SurveyRepository surveyRepository;
+
+    private volatile ConcurrentNavigableMap<Long, Entry> surveys;
+
+    // reload 查询期间本节点新增的公开问卷，换入新快照时并入（查询结果里可能还没有它们）
+    private final Map<Long, Entry> addedDuringReload = new HashMap<>();
+    private int reloadsInProgress;
+
+    public PublicSurveyCache(SurveyRepository surveyRepository) {
+        this.surveyRepository = surveyRepository;
+    }
+
+    /**
+     * Up to limit public surveys with id greater than afterId, in id order, optionally filtered by a
+     * case-insensitive name substring.
+     */
+    public List<SurveySummary> page(long afterId, String name, int limit) {
+        String needle = normalize(name);
+        List<SurveySummary> page = new ArrayList<>(Math.min(limit, 64));
+        for (Entry entry : snapshot().tailMap(afterId, false).values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            if (entry.matches(needle)) {
+                page.add(entry);
+            }
+        }
+        return page;
+    }
+
+    public long count(String name) {
+        String needle = normalize(name);
+        if (needle == null) {
+            return snapshot().size();
+        }
+        return snapshot().values().stream().filter(entry -> entry.matches(needle)).count();
+    }
+
+    public void add(Long id, String surveyName, String description) {
+        Entry entry = new Entry(id, surveyName, description);
+        snapshot();
+        synchronized (this) {
+            surveys.put(id, entry);
+            if (reloadsInProgress > 0) {
+                addedDuringReload.put(id, entry);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Replaces the cache with the public surveys in the database.
+     * Surveys added locally while the query ran are carried over.
+     */
+    @Scheduled(fixedDelayString = "${survey.public-cache.refresh-interval:PT1M}",
+            initialDelayString = "${survey.public-cache.refresh-interval:PT1M}")
+    public void reload() {
+        synchronized (this) {
+            reloadsInProgress++;
+        }
+        try {
+            ConcurrentNavigableMap<Long, Entry> next = new ConcurrentSkipListMap<>();
+            for (SurveySummary summary : surveyRepository.findPublicSummaries()) {
+                next.put(summary.getId(), new Entry(summary.getId(), summary.getSurveyName(), summary.getDescription()));
+            }
+            synchronized (this) {
+                next.putAll(addedDuringReload);
+                surveys = next;
+            }
+            log.debug("Reloaded {} public surveys", next.size());
+        } finally {
+            synchronized (this) {
+                if (--reloadsInProgress == 0) {
+                    addedDuringReload.clear();
+                }
+            }
+        }
+    }
+
+    private ConcurrentNavigableMap<Long, Entry> snapshot() {
+        ConcurrentNavigableMap<Long, Entry> current = surveys;
+        if (current == null) {
+            synchronized (this) {
+                if (surveys == null) {
+                    reload();
+                }
+                current = surveys;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Same semantics as SurveyService.namePattern: trimmed, case-insensitive substring.
+     */
+    private static String normalize(String name) {
+        return name == null || name.isBlank() ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry implements SurveySummary {
+        private final Long id;
+        private final String surveyName;
+        private final String description;
+        private final String lowerCaseName;
+
+        private Entry(Long id, String surveyName, String description) {
+            this.id = id;
+            this.surveyName = surveyName;
+            this.description = description;
+            this.lowerCaseName = surveyName == null ? "" : surveyName.toLowerCase(Locale.ROOT);
+        }
+
+        private boolean matches(String needle) {
+            return needle == null || lowerCaseName.contains(needle);
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getSurveyName() {
+            return surveyName;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+    }
+}
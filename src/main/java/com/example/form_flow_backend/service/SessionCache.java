@@ -0,0 +1,120 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.model.Session;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory cache of sessions keyed by session token.
+ * Entries are evicted by size (W-TinyLFU) and expire at the earlier of the
+ * configured TTL and the session's own expiration date.
+ * Invalidation is local to this node: after a logout elsewhere the token keeps working here
+ * until the entry expires, so session.cache.ttl is the accepted revocation lag for opaque
+ * tokens (the counterpart of session.token.revocation-sync-interval for signed tokens).
+ * The TTL runs from when the entry was loaded; extending a cached session does not restart it.
+ * Hit/miss/eviction counters are published as "cache.*" metrics with name=sessions.
+ */
+@Component
+public class SessionCache implements MeterBinder {
+
+    private final Cache<String, Session> cache;
+
+    @Autowired
+    public SessionCache(@Value("${session.cache.max-size:10000}") long maxSize,
+                        @Value("${session.cache.ttl:PT30S}") Duration ttl) {
+        this(maxSize, ttl, Ticker.systemTicker());
+    }
+
+    SessionCache(long maxSize, Duration ttl, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new SessionExpiry(ttl.toNanos()))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached session, loading it with the given function on a miss.
+     * A null result from the loader is not cached.
+     */
+    public Session get(String sessionToken, Function<String, Session> loader) {
+        if (sessionToken == null) {
+            return null;
+        }
+        return cache.get(sessionToken, loader);
+    }
+
+    public void put(Session session) {
+        cache.put(session.getSessionToken(), session);
+    }
+
+    /**
+     * Moves the expiration date of a cached session forward, if it is cached.
+     */
+    public void extend(String sessionToken, Date expirationDate) {
+        cache.asMap().computeIfPresent(sessionToken, (token, session) -> {
+            if (session.getExpirationDate().before(expirationDate)) {
+                session.setExpirationDate(expirationDate);
+            }
+            return session;
+        });
+    }
+
+    public void invalidate(String sessionToken) {
+        if (sessionToken != null) {
+            cache.invalidate(sessionToken);
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "sessions");
+    }
+
+    /**
+     * Expires an entry at min(load time + ttl, session expirationDate).
+     */
+    private static final class SessionExpiry implements Expiry<String, Session> {
+        private final long ttlNanos;
+
+        private SessionExpiry(long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String sessionToken, Session session, long currentTime) {
+            long remainingMillis = session.getExpirationDate().getTime() - System.currentTimeMillis();
+            return Math.max(0, Math.min(ttlNanos, TimeUnit.MILLISECONDS.toNanos(remainingMillis)));
+        }
+
+        @Override
+        public long expireAfterUpdate(String sessionToken, Session session, long currentTime, long currentDuration) {
+            // 更新（如延长会话）不重置 TTL，否则活跃的 token 在其他节点注销后可以一直命中本地缓存
+            return Math.min(currentDuration, expireAfterCreate(sessionToken, session, currentTime));
+        }
+
+        @Override
+        public long expireAfterRead(String sessionToken, Session session, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
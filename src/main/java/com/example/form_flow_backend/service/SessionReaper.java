@@ -0,0 +1,96 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.repository.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Periodically deletes expired sessions (through the configured {@link SessionStore})
+ * and expired rows of the revoked_tokens table.
+ * Rows are removed in batches of session.reaper.batch-size ids, each batch in its own
+ * short transaction (select ids via the expirationDate index, then DELETE ... WHERE id IN),
+ * so a large backlog never holds row locks for long.
+ */
+@Component
+public class SessionReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionReaper.class);
+
+    private final SessionStore sessionStore;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final SessionTouchTracker sessionTouchTracker;
+    private final int batchSize;
+
+    public SessionReaper(SessionStore sessionStore,
+                         RevokedTokenRepository revokedTokenRepository,
+                         SessionTouchTracker sessionTouchTracker,
+                         @Value("${session.reaper.batch-size:1000}") int batchSize) {
+        this.sessionStore = sessionStore;
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.sessionTouchTracker = sessionTouchTracker;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${session.reaper.interval:PT10M}",
+            initialDelayString = "${session.reaper.interval:PT10M}")
+    public void reap() {
+        // 截止时间在开始时固定，保证一次清理一定能结束
+        Date now = new Date();
+        // 先写回内存中的访问记录，避免删掉刚刚还在使用的 session
+        sessionTouchTracker.flush();
+        purgeExpiredSessions(now);
+        purgeExpiredRevokedTokens(now);
+    }
+
+    /**
+     * @return number of sessions deleted
+     */
+    public long purgeExpiredSessions(Date now) {
+        return purge("sessions", () -> sessionStore.deleteExpiredBatch(now, batchSize));
+    }
+
+    /**
+     * @return number of revoked tokens deleted
+     */
+    public long purgeExpiredRevokedTokens(Date now) {
+        return purge("revoked_tokens", () -> {
+            List<Long> ids = revokedTokenRepository.findExpiredIds(now, PageRequest.of(0, batchSize));
+            if (!ids.isEmpty()) {
+                revokedTokenRepository.deleteAllByIdInBatch(ids);
+            }
+            return ids.size();
+        });
+    }
+
+    private long purge(String table, IntSupplier deleteExpiredBatch) {
+        long start = System.nanoTime();
+        long purged = 0;
+        int batches = 0;
+
+        // 已删除的行不会再被查到，所以每批都从头取；不足一批说明已经删完
+        int deleted;
+        do {
+            deleted = deleteExpiredBatch.getAsInt();
+            purged += deleted;
+            if (deleted > 0) {
+                batches++;
+            }
+        } while (deleted == batchSize);
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        if (purged > 0) {
+            log.info("Purged {} expired rows from {} in {} batches, took {} ms", purged, table, batches, elapsedMillis);
+        } else {
+            log.debug("No expired rows in {}, took {} ms", table, elapsedMillis);
+        }
+        return purged;
+    }
+}
@@ -1,8 +1,14 @@
 package com.example.form_flow_backend.service;
 
 import com.example.form_flow_backend.model.Session;
-import com.example.form_flow_backend.repository.SessionRepository;
+import com.example.form_flow_backend.model.User;
 import com.example.form_flow_backend.repository.UserRepository;
+import com.example.form_flow_backend.security.AuthenticatedUser;
+import com.example.form_flow_backend.security.AuthenticationFailedException;
+import com.example.form_flow_backend.security.SessionTokenCodec;
+import com.example.form_flow_backend.security.SignedSessionClaims;
+import com.example.form_flow_backend.security.TokenRevocationList;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
@@ -10,39 +16,153 @@ import java.util.UUID;
 
 @Service
 public class SessionService {
-    private final SessionRepository sessionRepository;
+    private final SessionStore sessionStore;
+    private final SessionCache sessionCache;
+    private final UserRepository userRepository;
+    private final SessionTokenCodec sessionTokenCodec;
+    private final TokenRevocationList tokenRevocationList;
+    private final SessionTouchTracker sessionTouchTracker;
 
-    public SessionService(SessionRepository sessionRepository) {
-        this.sessionRepository = sessionRepository;
+    public SessionService(SessionStore sessionStore,
+                          SessionCache sessionCache,
+                          UserRepository userRepository,
+                          SessionTokenCodec sessionTokenCodec,
+                          TokenRevocationList tokenRevocationList,
+                          SessionTouchTracker sessionTouchTracker) {
+        this.sessionStore = sessionStore;
+        this.sessionCache = sessionCache;
+        this.userRepository = userRepository;
+        this.sessionTokenCodec = sessionTokenCodec;
+        this.tokenRevocationList = tokenRevocationList;
+        this.sessionTouchTracker = sessionTouchTracker;
     }
 
+    /**
+     * Creates a session for the user.
+     * In signed token mode the returned Session is not persisted: the token itself
+     * carries the user id, username and expiry.
+     */
     public Session createSession(String username) {
-        // 生成一个随机的 sessionToken
-        String sessionToken = UUID.randomUUID().toString();
         // 生成一个过期时间
         Date expirationDate = new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24);
+        if (sessionTokenCodec.isEnabled()) {
+            return createSignedSession(username, expirationDate);
+        }
+
+        // 生成一个随机的 sessionToken
+        String sessionToken = UUID.randomUUID().toString();
         // 创建一个 Session 对象
         Session session = new Session();
         session.setSessionToken(sessionToken);
         session.setUsername(username);
         session.setExpirationDate(expirationDate);
-        // 保存到数据库
-        return sessionRepository.save(session);
+        // 保存到 SessionStore，并放入缓存（登录后的第一个请求无需再查库）
+        Session saved = sessionStore.save(session);
+        sessionCache.put(saved);
+        return saved;
     }
 
     public void deleteSession(String sessionToken) {
-        sessionRepository.deleteBySessionToken(sessionToken);
+        if (sessionTokenCodec.isSignedToken(sessionToken)) {
+            // 签名 token 无法删除，只能加入吊销列表直到其过期
+            SignedSessionClaims claims = sessionTokenCodec.decode(sessionToken);
+            if (claims != null) {
+                tokenRevocationList.revoke(claims.getTokenId(), claims.getExpirationDate());
+            }
+            return;
+        }
+        sessionTouchTracker.forget(sessionToken);
+        sessionCache.invalidate(sessionToken);
+        sessionStore.deleteBySessionToken(sessionToken);
     }
 
     public Session getSession(String sessionToken) {
-        return sessionRepository.findBySessionToken(sessionToken).orElse(null);
+        if (sessionTokenCodec.isSignedToken(sessionToken)) {
+            SignedSessionClaims claims = verifySignedToken(sessionToken);
+            return claims == null ? null : toSession(sessionToken, claims);
+        }
+        return sessionCache.get(sessionToken,
+                token -> sessionStore.findBySessionToken(token).orElse(null));
     }
 
+    /**
+     * Whether the session exists and has not expired, counting activity that
+     * has not been written back yet (see {@link SessionTouchTracker}).
+     */
     public boolean verifySession(String sessionToken) {
         Session session = getSession(sessionToken);
         if (session == null) {
             return false;
         }
-        return session.getExpirationDate().after(new Date());
+        return sessionTouchTracker.effectiveExpiration(session).after(new Date());
+    }
+
+    /**
+     * Resolves the caller of a request from its session token.
+     * Signed tokens are checked by signature, expiry and the revocation list only,
+     * without any database access. Opaque sessions slide: each call pushes the
+     * expiry out by session.sliding.window.
+     *
+     * @param sessionToken the session token sent by the client, may be null
+     * @return the authenticated caller
+     * @throws AuthenticationFailedException if the token is missing, unknown or expired,
+     *                                       or the session's user no longer exists
+     */
+    public AuthenticatedUser authenticate(String sessionToken) {
+        // 1. 校验 sessionToken 是否为空
+        if (sessionToken == null) {
+            throw new AuthenticationFailedException(HttpStatus.BAD_REQUEST, "Session token is missing.");
+        }
+
+        // 2. 签名 token：校验签名、过期时间与吊销列表
+        if (sessionTokenCodec.isSignedToken(sessionToken)) {
+            SignedSessionClaims claims = verifySignedToken(sessionToken);
+            if (claims == null || !claims.getExpirationDate().after(new Date())) {
+                throw new AuthenticationFailedException(HttpStatus.UNAUTHORIZED, "Unauthorized or session expired.");
+            }
+            return new AuthenticatedUser(claims.getUserId(), claims.getUsername(), sessionToken);
+        }
+
+        // 3. 校验 session 是否存在且未过期，并记录本次访问以顺延过期时间
+        Session session = getSession(sessionToken);
+        if (session == null || !sessionTouchTracker.effectiveExpiration(session).after(new Date())) {
+            throw new AuthenticationFailedException(HttpStatus.UNAUTHORIZED, "Unauthorized or session expired.");
+        }
+        sessionTouchTracker.touch(session);
+
+        // 4. 获取 username，并查询 User
+        User user = userRepository.findByUsername(session.getUsername())
+                .orElseThrow(() -> new AuthenticationFailedException(
+                        HttpStatus.BAD_REQUEST, "User not found in database."));
+
+        return new AuthenticatedUser(user.getId(), user.getUsername(), sessionToken);
+    }
+
+    private Session createSignedSession(String username, Date expirationDate) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new AuthenticationFailedException(
+                        HttpStatus.BAD_REQUEST, "User not found in database."));
+        SignedSessionClaims claims = new SignedSessionClaims(
+                UUID.randomUUID().toString(), user.getId(), username, expirationDate);
+        return toSession(sessionTokenCodec.encode(claims), claims);
+    }
+
+    /**
+     * @return the claims of a correctly signed, non-revoked token, or null
+     */
+    private SignedSessionClaims verifySignedToken(String sessionToken) {
+        SignedSessionClaims claims = sessionTokenCodec.decode(sessionToken);
+        if (claims == null || tokenRevocationList.isRevoked(claims.getTokenId())) {
+            return null;
+        }
+        return claims;
+    }
+
+    private static Session toSession(String sessionToken, SignedSessionClaims claims) {
+        Session session = new Session();
+        session.setSessionToken(sessionToken);
+        session.setUsername(claims.getUsername());
+        session.setExpirationDate(claims.getExpirationDate());
+        return session;
     }
 }
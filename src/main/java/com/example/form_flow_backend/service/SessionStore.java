@@ -0,0 +1,36 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.model.Session;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Storage for opaque sessions, selected with the session.store property:
+ * "jpa" (default, the sessions table, shared by all nodes) or
+ * "memory" (this node only, snapshotted to a local file).
+ */
+public interface SessionStore {
+
+    Session save(Session session);
+
+    Optional<Session> findBySessionToken(String sessionToken);
+
+    void deleteBySessionToken(String sessionToken);
+
+    /**
+     * Moves the expiration date of the given sessions forward to expirationDate;
+     * sessions that already expire later are left unchanged.
+     *
+     * @return number of sessions updated
+     */
+    int extendExpiration(Collection<String> sessionTokens, Date expirationDate);
+
+    /**
+     * Deletes at most batchSize sessions that expired before now.
+     *
+     * @return number of sessions deleted; less than batchSize means none are left
+     */
+    int deleteExpiredBatch(Date now, int batchSize);
+}
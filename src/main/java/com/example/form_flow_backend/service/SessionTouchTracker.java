@@ -0,0 +1,136 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.model.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sliding expiration for opaque sessions.
+ * Each authenticated request records a touch in memory; a session stays valid until
+ * max(stored expirationDate, lastTouch + window). Touches are written back every
+ * session.sliding.write-interval: the new expiry is rounded down to the interval, so all
+ * sessions touched in the same interval share one value and are extended with a single
+ * UPDATE ... WHERE sessionToken IN (...). A session is written at most once per interval,
+ * and not at all while its stored expiry is still ahead of the rounded value.
+ */
+@Component
+public class SessionTouchTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionTouchTracker.class);
+    private static final int UPDATE_CHUNK_SIZE = 500;
+
+    private final SessionStore sessionStore;
+    private final SessionCache sessionCache;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final long writeIntervalMillis;
+
+    // sessionToken -> 最近一次访问时间（毫秒）
+    private final Map<String, Long> lastTouches = new ConcurrentHashMap<>();
+
+    public SessionTouchTracker(SessionStore sessionStore,
+                               SessionCache sessionCache,
+                               @Value("${session.sliding.enabled:true}") boolean enabled,
+                               @Value("${session.sliding.window:PT24H}") Duration window,
+                               @Value("${session.sliding.write-interval:PT5M}") Duration writeInterval) {
+        this.sessionStore = sessionStore;
+        this.sessionCache = sessionCache;
+        this.enabled = enabled;
+        this.windowMillis = window.toMillis();
+        this.writeIntervalMillis = writeInterval.toMillis();
+    }
+
+    /**
+     * Records that the session was used now.
+     */
+    public void touch(Session session) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // 存储的过期时间已经够晚，无需写回
+        if (roundedExpiration(now) <= session.getExpirationDate().getTime()) {
+            return;
+        }
+        lastTouches.merge(session.getSessionToken(), now, Math::max);
+    }
+
+    /**
+     * The expiration date taking unflushed touches into account.
+     */
+    public Date effectiveExpiration(Session session) {
+        Long lastTouch = enabled ? lastTouches.get(session.getSessionToken()) : null;
+        if (lastTouch == null || lastTouch + windowMillis <= session.getExpirationDate().getTime()) {
+            return session.getExpirationDate();
+        }
+        return new Date(lastTouch + windowMillis);
+    }
+
+    public void forget(String sessionToken) {
+        if (sessionToken != null) {
+            lastTouches.remove(sessionToken);
+        }
+    }
+
+    /**
+     * Writes pending touches back to the session store.
+     *
+     * @return number of sessions written
+     */
+    @Scheduled(fixedDelayString = "${session.sliding.write-interval:PT5M}",
+            initialDelayString = "${session.sliding.write-interval:PT5M}")
+    public int flush() {
+        if (lastTouches.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+
+        // 1. 取出待写回的 touch，按取整后的新过期时间分组
+        Map<Long, List<String>> tokensByExpiration = new TreeMap<>();
+        for (Map.Entry<String, Long> entry : lastTouches.entrySet()) {
+            // 只有值未被并发更新时才移除，否则留到下一轮
+            if (lastTouches.remove(entry.getKey(), entry.getValue())) {
+                tokensByExpiration
+                        .computeIfAbsent(roundedExpiration(entry.getValue()), k -> new ArrayList<>())
+                        .add(entry.getKey());
+            }
+        }
+
+        // 2. 每组一条（或按块若干条）UPDATE
+        int written = 0;
+        int statements = 0;
+        for (Map.Entry<Long, List<String>> group : tokensByExpiration.entrySet()) {
+            Date expirationDate = new Date(group.getKey());
+            List<String> tokens = group.getValue();
+            for (int from = 0; from < tokens.size(); from += UPDATE_CHUNK_SIZE) {
+                List<String> chunk = tokens.subList(from, Math.min(from + UPDATE_CHUNK_SIZE, tokens.size()));
+                sessionStore.extendExpiration(chunk, expirationDate);
+                statements++;
+            }
+            // 3. 同步缓存中的 Session
+            for (String token : tokens) {
+                sessionCache.extend(token, expirationDate);
+            }
+            written += tokens.size();
+        }
+
+        log.debug("Extended {} sessions with {} statements in {} ms",
+                written, statements, (System.nanoTime() - start) / 1_000_000);
+        return written;
+    }
+
+    private long roundedExpiration(long touchMillis) {
+        return touchMillis - Math.floorMod(touchMillis, writeIntervalMillis) + windowMillis;
+    }
+}
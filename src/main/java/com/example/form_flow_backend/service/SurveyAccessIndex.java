@@ -0,0 +1,182 @@
+package com.example.form_flow_backend.service;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory access control list: survey id -> (owner, public flag, bitmap of granted user ids).
+ * Grants are only written when a survey is created, so an entry never changes once loaded.
+ * The index is rebuilt at startup and periodically; a survey this node has not seen yet
+ * (created on another node since the last rebuild) is loaded on first lookup.
+ */
+@Component
+public class SurveyAccessIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SurveyAccessIndex.class);
+
+    private static final String LOAD_ONE_SQL = "SELECT s.user_id, s.is_public, a.user_id FROM surveys s "
+            + "LEFT JOIN access a ON a.survey_id = s.id WHERE s.id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Snapshot snapshot = new Snapshot();
+
+    public SurveyAccessIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * ACL of the survey, or null if the survey does not exist.
+     */
+    public SurveyAcl find(long surveyId) {
+        SurveyAcl acl = snapshot.surveys.get(surveyId);
+        if (acl != null) {
+            return acl;
+        }
+        acl = loadOne(surveyId);
+        if (acl != null) {
+            synchronized (this) {
+                snapshot.put(surveyId, acl);
+            }
+        }
+        return acl;
+    }
+
+    /**
+     * Records a survey this node just created.
+     */
+    public void add(long surveyId, long ownerId, boolean publicSurvey, Collection<Long> granteeIds) {
+        RoaringBitmap grantees = new RoaringBitmap();
+        for (Long granteeId : granteeIds) {
+            grantees.add(Math.toIntExact(granteeId));
+        }
+        grantees.runOptimize();
+        synchronized (this) {
+            snapshot.put(surveyId, new SurveyAcl(ownerId, publicSurvey, grantees));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${survey.acl-index.refresh-interval:PT5M}",
+            initialDelayString = "${survey.acl-index.refresh-interval:PT5M}")
+    public void resync() {
+        rebuild();
+    }
+
+    /**
+     * Replaces the index with the current surveys and access tables.
+     * Surveys added locally while the queries ran are carried over.
+     */
+    public void rebuild() {
+        Map<Long, Long> owners = new HashMap<>();
+        RoaringBitmap publicSurveys = new RoaringBitmap();
+        jdbcTemplate.query("SELECT id, user_id, is_public FROM surveys", rs -> {
+            long surveyId = rs.getLong(1);
+            owners.put(surveyId, rs.getLong(2));
+            if (rs.getBoolean(3)) {
+                publicSurveys.add(Math.toIntExact(surveyId));
+            }
+        });
+        Map<Long, RoaringBitmap> grantees = new HashMap<>();
+        jdbcTemplate.query("SELECT survey_id, user_id FROM access", rs -> {
+            grantees.computeIfAbsent(rs.getLong(1), id -> new RoaringBitmap()).add(Math.toIntExact(rs.getLong(2)));
+        });
+
+        Snapshot next = new Snapshot();
+        RoaringBitmap none = new RoaringBitmap();
+        owners.forEach((surveyId, ownerId) -> {
+            RoaringBitmap granted = grantees.getOrDefault(surveyId, none);
+            granted.runOptimize();
+            next.load(surveyId, new SurveyAcl(ownerId, publicSurveys.contains(Math.toIntExact(surveyId)), granted));
+        });
+
+        synchronized (this) {
+            snapshot.surveys.forEach((surveyId, acl) -> {
+                if (!next.surveys.containsKey(surveyId)) {
+                    next.put(surveyId, acl);
+                }
+            });
+            snapshot = next;
+        }
+        log.debug("Rebuilt survey access index with {} surveys", next.surveys.size());
+    }
+
+    private SurveyAcl loadOne(long surveyId) {
+        long[] owner = {-1L};
+        boolean[] publicSurvey = {false};
+        RoaringBitmap grantees = new RoaringBitmap();
+        jdbcTemplate.query(LOAD_ONE_SQL, rs -> {
+            owner[0] = rs.getLong(1);
+            publicSurvey[0] = rs.getBoolean(2);
+            long granteeId = rs.getLong(3);
+            if (!rs.wasNull()) {
+                grantees.add(Math.toIntExact(granteeId));
+            }
+        }, surveyId);
+        if (owner[0] < 0) {
+            return null;
+        }
+        grantees.runOptimize();
+        return new SurveyAcl(owner[0], publicSurvey[0], grantees);
+    }
+
+    /**
+     * Who may see and take one survey. Immutable.
+     */
+    public static final class SurveyAcl {
+        private final long ownerId;
+        private final boolean publicSurvey;
+        private final RoaringBitmap grantees;
+
+        private SurveyAcl(long ownerId, boolean publicSurvey, RoaringBitmap grantees) {
+            this.ownerId = ownerId;
+            this.publicSurvey = publicSurvey;
+            this.grantees = grantees;
+        }
+
+        public boolean ownedBy(long userId) {
+            return ownerId == userId;
+        }
+
+        public boolean allows(long userId) {
+            return publicSurvey || ownerId == userId
+                    || (userId >= 0 && userId <= Integer.MAX_VALUE && grantees.contains((int) userId));
+        }
+    }
+
+    /**
+     * Readers never lock; writers hold the index monitor.
+     */
+    private static final class Snapshot {
+        private final Map<Long, SurveyAcl> surveys = new ConcurrentHashMap<>();
+
+        /**
+         * Bulk load of a snapshot nobody reads yet.
+         */
+        private void load(long surveyId, SurveyAcl acl) {
+            surveys.put(surveyId, acl);
+        }
+
+        /**
+         * Insert into a published snapshot; an entry already loaded is kept.
+         */
+        private void put(long surveyId, SurveyAcl acl) {
+            surveys.putIfAbsent(surveyId, acl);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.form_flow_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Bounded cache of each survey's rendered question list, stamped with the survey's questionsVersion.
+ * A lookup only hits when the cached version equals the current one, so a node that missed
+ * an update elsewhere reloads instead of serving stale questions.
+ * The cache is bounded by the total size of the rendered bytes.
+ * Hit/miss counters are published as "cache.*" metrics with name=survey-details.
+ */
+@Component
+public class SurveyDetailCache implements MeterBinder {
+
+    private final Cache<Long, SurveyDetailPayload> cache;
+
+    public SurveyDetailCache(@Value("${survey.detail-cache.max-bytes:64MB}") DataSize maxBytes,
+                             @Value("${survey.detail-cache.ttl:PT10M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes.toBytes())
+                .weigher((Long surveyId, SurveyDetailPayload payload) -> payload.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return the cached payload if it is at the given version, otherwise null
+     */
+    public SurveyDetailPayload get(Long surveyId, long version) {
+        SurveyDetailPayload stale = cache.policy().getIfPresentQuietly(surveyId);
+        if (stale != null && stale.getVersion() < version) {
+            // 旧版本直接移除，下面的查询按未命中统计
+            cache.asMap().remove(surveyId, stale);
+        }
+        SurveyDetailPayload payload = cache.getIfPresent(surveyId);
+        return payload != null && payload.getVersion() == version ? payload : null;
+    }
+
+    /**
+     * Stores the payload; an entry with a newer version is never replaced by an older one.
+     */
+    public void put(Long surveyId, SurveyDetailPayload payload) {
+        cache.asMap().merge(surveyId, payload,
+                (existing, added) -> existing.getVersion() > added.getVersion() ? existing : added);
+    }
+
+    public void invalidate(Long surveyId) {
+        cache.invalidate(surveyId);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "survey-details");
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.DTO.QuestionDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The rendered get_survey_detail response for one version of a survey's questions.
+ * The JSON (and optionally its gzip form) is produced once and the arrays are never
+ * modified afterwards, so the same bytes are written to every client.
+ */
+public final class SurveyDetailPayload {
+
+    private final long version;
+    private final String etag;
+    private final byte[] json;
+    private final byte[] gzip;
+
+    private SurveyDetailPayload(long version, String etag, byte[] json, byte[] gzip) {
+        this.version = version;
+        this.etag = etag;
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Serializes {"questionsVersion": n, "questions": [...]} and, if requested, a gzip copy of it.
+     */
+    public static SurveyDetailPayload render(Long surveyId, long version, List<QuestionDTO> questions,
+                                             ObjectMapper objectMapper, boolean precompress) {
+        // 固定字段顺序，保证同一版本在所有节点上渲染出相同的字节（强 ETag）
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("questionsVersion", version);
+        body.put("questions", questions);
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render survey " + surveyId, e);
+        }
+        return new SurveyDetailPayload(version, etagFor(surveyId, version), json,
+                precompress ? gzip(json) : null);
+    }
+
+    /**
+     * Strong ETag of the identity representation; the gzip representation appends "-gz".
+     */
+    public static String etagFor(Long surveyId, long version) {
+        return "\"q" + surveyId + "-" + version + "\"";
+    }
+
+    /**
+     * The entity tag in an If-None-Match header that names this version (weak comparison, as RFC 9110 requires),
+     * returned in its strong identity or gzip form so a 304 can echo it; "*" stands for the representation
+     * that would be sent. Null if no tag matches.
+     */
+    public static String matchingEtag(String ifNoneMatch, Long surveyId, long version, boolean gzip) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return null;
+        }
+        String etag = etagFor(surveyId, version);
+        String gzipEtag = gzipEtag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals(gzipEtag)) {
+                return tag;
+            }
+            if (tag.equals("*")) {
+                return gzip ? gzipEtag : etag;
+            }
+        }
+        return null;
+    }
+
+    private static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getGzipEtag() {
+        return gzipEtag(etag);
+    }
+
+    /**
+     * The shared JSON bytes; callers must not modify the array.
+     */
+    public byte[] getJson() {
+        return json;
+    }
+
+    /**
+     * The shared gzip bytes, or null when the payload was not precompressed; callers must not modify the array.
+     */
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    public boolean hasGzip() {
+        return gzip != null;
+    }
+
+    /**
+     * Approximate retained size, used to bound the cache by bytes rather than entry count.
+     */
+    int weight() {
+        return json.length + (gzip == null ? 0 : gzip.length);
+    }
+}
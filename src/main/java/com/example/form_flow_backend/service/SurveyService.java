@@ -2,15 +2,26 @@ package com.example.form_flow_backend.service;
 
 import com.example.form_flow_backend.DTO.CreateSurveyRequest;
 import com.example.form_flow_backend.DTO.GetSurveyDetailRequest;
+import com.example.form_flow_backend.DTO.QuestionChanges;
+import com.example.form_flow_backend.DTO.QuestionDTO;
+import com.example.form_flow_backend.DTO.SurveyPageRequest;
+import com.example.form_flow_backend.DTO.SurveySummary;
 import com.example.form_flow_backend.DTO.UpdateQuestionsRequest;
 import com.example.form_flow_backend.model.*;
 import com.example.form_flow_backend.repository.*;
 import com.example.form_flow_backend.repository.Access.AccessRepository;
+import com.example.form_flow_backend.security.AuthenticatedUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.function.LongSupplier;
 
 @Service
 public class SurveyService {
@@ -18,94 +29,77 @@ public class SurveyService {
     private final UserRepository userRepository;
     private final SurveyRepository surveyRepository;
     private final QuestionRepository questionRepository;
-    private final SessionRepository sessionRepository;
-    private final SessionService sessionService;
     private final AccessRepository accessRepository;
+    private final SurveyDetailCache surveyDetailCache;
+    private final PublicSurveyCache publicSurveyCache;
+    private final SurveyAccessIndex surveyAccessIndex;
+    private final ObjectMapper objectMapper;
+    private final boolean precompress;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
     public SurveyService(
             UserRepository userRepository,
             SurveyRepository surveyRepository,
             QuestionRepository questionRepository,
-            SessionRepository sessionRepository,
-            SessionService sessionService, AccessRepository accessRepository) {
+            AccessRepository accessRepository,
+            SurveyDetailCache surveyDetailCache,
+            PublicSurveyCache publicSurveyCache,
+            SurveyAccessIndex surveyAccessIndex,
+            ObjectMapper objectMapper,
+            @Value("${survey.detail-cache.precompress:true}") boolean precompress,
+            @Value("${survey.page.default-size:50}") int defaultPageSize,
+            @Value("${survey.page.max-size:200}") int maxPageSize) {
         this.userRepository = userRepository;
         this.surveyRepository = surveyRepository;
         this.questionRepository = questionRepository;
-        this.sessionRepository = sessionRepository;
-        this.sessionService = sessionService;
         this.accessRepository = accessRepository;
+        this.surveyDetailCache = surveyDetailCache;
+        this.publicSurveyCache = publicSurveyCache;
+        this.surveyAccessIndex = surveyAccessIndex;
+        this.objectMapper = objectMapper;
+        this.precompress = precompress;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     /**
      * 创建问卷
      */
-    public ResponseEntity<Map<String, Object>> createSurvey(CreateSurveyRequest request) {
+    public ResponseEntity<Map<String, Object>> createSurvey(CreateSurveyRequest request, AuthenticatedUser authenticatedUser) {
         Map<String, Object> response = new HashMap<>();
 
-        // 1. 校验 sessionToken 是否为空
-        if (request.getSessionToken() == null) {
-            response.put("success", false);
-            response.put("message", "Session token is missing.");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
-
-        // 2. 根据 sessionToken 查找 Session
-        Optional<Session> sessionOpt = sessionRepository.findBySessionToken(request.getSessionToken());
-        if (sessionOpt.isEmpty()) {
-            response.put("success", false);
-            response.put("message", "Unauthorized or session expired.");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-        }
-
-        // 3. 获取 username，并查询 User
-        String username = sessionOpt.get().getUsername();
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isEmpty()) {
-            response.put("success", false);
-            response.put("message", "User not found in database.");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
-        User user = userOpt.get();
-
-        // 4. 校验必填字段 surveyName
+        // 1. 校验必填字段 surveyName
         if (request.getSurveyName() == null || request.getSurveyName().trim().isEmpty()) {
             response.put("success", false);
             response.put("message", "Survey name is required.");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
 
-        // 5. 构造 Survey 对象
+        // 2. 构造 Survey 对象（User 只需引用，不必查库）；"-1" 表示对所有人开放
+        String[] accessesStrs = request.getAccessControl().split(",");
+        boolean isPublic = accessesStrs[0].equals("-1");
         Survey newSurvey = new Survey();
         newSurvey.setSurveyName(request.getSurveyName());
         newSurvey.setDescription(request.getDescription());
-        newSurvey.setUser(user);
+        newSurvey.setUser(userRepository.getReferenceById(authenticatedUser.getId()));
+        newSurvey.setPublicSurvey(isPublic);
 
-        // 6. 保存到数据库
+        // 3. 保存到数据库
         Survey savedSurvey = surveyRepository.save(newSurvey);
 
-        // 7. 构造 access control
-        String[] accessesStrs = request.getAccessControl().split(",");
-        List<Access> accesses = new ArrayList<>();
-        if (accessesStrs[0].equals("-1")) {
-            Access access = new Access();
-            access.setSurvey(savedSurvey);
-            User universalUser = new User();
-            universalUser.setId(-1L);
-            access.setUser(universalUser);
-            accesses.add(access);
+        // 4. 公开问卷只进公开缓存；否则构造 access control（只取用户 id，一次 JDBC 批量插入）
+        List<Long> accessUserIds = List.of();
+        if (isPublic) {
+            publicSurveyCache.add(savedSurvey.getId(), savedSurvey.getSurveyName(), savedSurvey.getDescription());
         }
         else {
-            List<User> accessibleUsers = userRepository.findByUsernameIn(Arrays.asList(accessesStrs));
-            for (User accessibleUser : accessibleUsers) {
-                Access access = new Access();
-                access.setSurvey(savedSurvey);
-                access.setUser(accessibleUser);
-                accesses.add(access);
-            }
+            accessUserIds = userRepository.findIdsByUsernameIn(Arrays.asList(accessesStrs));
+            accessRepository.batchInsert(savedSurvey.getId(), accessUserIds);
         }
-        accessRepository.saveAll(accesses);
+        surveyAccessIndex.add(savedSurvey.getId(), authenticatedUser.getId(), isPublic, accessUserIds);
 
-        // 7. 构造返回响应
+        // 5. 构造返回响应
         response.put("success", true);
         response.put("message", "Survey created successfully.");
         response.put("surveyId", savedSurvey.getId());
@@ -114,72 +108,29 @@ public class SurveyService {
     }
 
     /**
-     * 获取某用户所有的 Survey
+     * 分页获取某用户创建的 Survey（按 id 的 keyset 分页）
      */
-    public ResponseEntity<Map<String, Object>> getAllSurveysForUser(String sessionToken) {
-        Map<String, Object> response = new HashMap<>();
-
-        // 1. 校验 sessionToken 是否为空
-        if (sessionToken == null) {
-            response.put("success", false);
-            response.put("message", "Session token is missing.");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
-        if (!sessionService.verifySession(sessionToken)) {
-            response.put("success", false);
-            response.put("message", "Unauthorized or session expired.");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-        }
-        Optional<Session> sessionOpt = sessionRepository.findBySessionToken(sessionToken);
-        Session session = sessionOpt.get();
-
-        // 2. 获取 username，并查询 User
-        String username = session.getUsername();
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isEmpty()) {
-            response.put("success", false);
-            response.put("message", "User not found in database.");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
-        User user = userOpt.get();
-
-        // 3. 获取所有 Survey
-        List<Survey> surveys = surveyRepository.findAllByUser(user);
-
-        // 4. 构造返回结果
-        List<Map<String, Object>> surveyList = new ArrayList<>();
-        for (Survey s : surveys) {
-            Map<String, Object> surveyData = new HashMap<>();
-            surveyData.put("surveyId", s.getId());
-            surveyData.put("surveyName", s.getSurveyName());
-            surveyData.put("description", s.getDescription());
-            surveyList.add(surveyData);
-        }
-        response.put("surveys", surveyList);
-
-        return ResponseEntity.ok(response);
+    public ResponseEntity<Map<String, Object>> getAllSurveysForUser(SurveyPageRequest request, AuthenticatedUser authenticatedUser) {
+        Long userId = authenticatedUser.getId();
+        String pattern = namePattern(request.getName());
+        int pageSize = resolvePageSize(request.getPageSize());
+
+        // 1. 多取一条，用来判断是否还有下一页
+        List<SurveySummary> rows = surveyRepository.findOwnedPage(
+                userId, resolveCursor(request.getAfterId()), pattern, Limit.of(pageSize + 1));
+
+        // 2. 构造返回结果
+        return ResponseEntity.ok(buildPage(rows, pageSize, request.isIncludeTotal(),
+                () -> surveyRepository.countOwned(userId, pattern)));
     }
 
     /**
-     * 更新问题列表
+     * 更新问题列表：与已有问题比较，只写入新增、修改和删除的行
      */
     public ResponseEntity<Map<String, Object>> updateQuestions(UpdateQuestionsRequest request) {
         Map<String, Object> response = new HashMap<>();
 
-        // 1. 校验 sessionToken 是否为空
-        String sessionToken = request.getSessionToken();
-        if (sessionToken == null) {
-            response.put("success", false);
-            response.put("message", "Session token is missing.");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
-        if (!sessionService.verifySession(sessionToken)) {
-            response.put("success", false);
-            response.put("message", "Unauthorized or session expired.");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-        }
-
-        // 3. 查找并校验 Survey
+        // 1. 查找并校验 Survey
         Long surveyId;
         try {
             surveyId = Long.valueOf(request.getSurveyId());
@@ -189,50 +140,64 @@ public class SurveyService {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
 
-        Optional<Survey> surveyOpt = surveyRepository.findById(surveyId);
-        if (surveyOpt.isEmpty()) {
+        Optional<Long> versionOpt = surveyRepository.findQuestionsVersionById(surveyId);
+        if (versionOpt.isEmpty()) {
             response.put("success", false);
             response.put("message", "Survey not found in database.");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
-        Survey survey = surveyOpt.get();
+        long currentVersion = versionOpt.get();
 
-        // 4. 先删除原有问题（假设是“整表替换”模式）
-        questionRepository.deleteBySurveyId(surveyId);
+        // 2. 乐观并发校验：客户端看到的版本必须仍是当前版本
+        if (request.getQuestionsVersion() != null && request.getQuestionsVersion() != currentVersion) {
+            return versionConflict(response, currentVersion);
+        }
 
-        // 5. 为新问题设置所属 survey 并批量保存
-        List<Question> questionList = request.getQuestions();
-        if (questionList != null) {
-            for (Question question : questionList) {
-                question.setSurvey(survey);
-            }
-            questionRepository.saveAll(questionList);
+        // 3. 在一个事务内按差异写入（questions 为 null 表示清空）
+        List<Question> questionList = request.getQuestions() == null ? List.of() : request.getQuestions();
+        Optional<QuestionChanges> changesOpt = questionRepository.applyChanges(surveyId, currentVersion, questionList);
+        if (changesOpt.isEmpty()) {
+            return versionConflict(response, surveyRepository.findQuestionsVersionById(surveyId).orElse(currentVersion));
         }
+        QuestionChanges changes = changesOpt.get();
 
-        // 6. 返回成功结果
+        // 4. 事务已提交，用新渲染的结果替换缓存（其他节点通过版本号发现旧缓存）
+        List<QuestionDTO> cachedQuestions = new ArrayList<>(changes.getQuestions().size());
+        for (Question saved : changes.getQuestions()) {
+            cachedQuestions.add(QuestionDTO.from(saved));
+        }
+        cachedQuestions.sort(Comparator.comparing(QuestionDTO::getQuestion_order)
+                .thenComparing(QuestionDTO::getId));
+        surveyDetailCache.put(surveyId, SurveyDetailPayload.render(
+                surveyId, changes.getQuestionsVersion(), cachedQuestions, objectMapper, precompress));
+
+        // 5. 返回成功结果及变更情况
         response.put("success", true);
         response.put("message", "Questions updated successfully.");
+        response.put("questionsVersion", changes.getQuestionsVersion());
+        response.put("inserted", changes.getInserted());
+        response.put("updated", changes.getUpdated());
+        response.put("deleted", changes.getDeleted());
 
         return ResponseEntity.ok(response);
     }
 
-    public ResponseEntity<Map<String, Object>> getSurveyDetail(GetSurveyDetailRequest request) {
-        Map<String, Object> response = new HashMap<>();
+    private static ResponseEntity<Map<String, Object>> versionConflict(Map<String, Object> response, long currentVersion) {
+        response.put("success", false);
+        response.put("message", "Questions were modified by another request.");
+        response.put("questionsVersion", currentVersion);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
 
-        // 1. 校验 sessionToken 是否为空
-        String sessionToken = request.getSessionToken();
-        if (sessionToken == null) {
-            response.put("success", false);
-            response.put("message", "Session token is missing.");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
-        if (!sessionService.verifySession(sessionToken)) {
-            response.put("success", false);
-            response.put("message", "Unauthorized or session expired.");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-        }
+    /**
+     * 返回问卷的问题列表。结果是预先渲染好的 JSON 字节，带强 ETag；
+     * If-None-Match 命中当前版本时直接返回 304，不加载问题也不序列化。
+     */
+    public ResponseEntity<Object> getSurveyDetail(GetSurveyDetailRequest request, AuthenticatedUser authenticatedUser,
+                                                  String ifNoneMatch, String acceptEncoding) {
+        Map<String, Object> response = new HashMap<>();
 
-        // 3. 查找并校验 Survey
+        // 1. 查找并校验 Survey
         Long surveyId;
         try {
             surveyId = Long.valueOf(request.getSurveyId());
@@ -242,78 +207,170 @@ public class SurveyService {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
 
-        Optional<Survey> surveyOpt = surveyRepository.findById(surveyId);
-        if (surveyOpt.isEmpty()) {
+        // 2. 内存 ACL 校验：创建者、被授权用户或公开问卷
+        SurveyAccessIndex.SurveyAcl acl = surveyAccessIndex.find(surveyId);
+        if (acl == null) {
             response.put("success", false);
             response.put("message", "Survey not found in database.");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
-
-        Optional<List<Question>> questionList = questionRepository.findBySurveyId(surveyId);
-        if (questionList.isPresent()) {
-            for (Question question : questionList.get()) {
-                question.setSurvey(null);
-            }
+        if (!acl.allows(authenticatedUser.getId())) {
+            response.put("success", false);
+            response.put("message", "You do not have access to this survey.");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
         }
-        response.put("questions", questionList);
-
-        return ResponseEntity.ok(response);
-    }
 
-    public ResponseEntity<Map<String, Object>> getAccessibleSurvey(String sessionToken) {
-        Map<String, Object> response = new HashMap<>();
-
-        // 1. 校验 sessionToken 是否为空
-        if (sessionToken == null) {
+        // 3. 只查询版本号
+        Optional<Long> versionOpt = surveyRepository.findQuestionsVersionById(surveyId);
+        if (versionOpt.isEmpty()) {
             response.put("success", false);
-            response.put("message", "Session token is missing.");
+            response.put("message", "Survey not found in database.");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
-        if (!sessionService.verifySession(sessionToken)) {
-            response.put("success", false);
-            response.put("message", "Unauthorized or session expired.");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        long version = versionOpt.get();
+
+        // 4. 客户端已有当前版本：回显命中的 ETag（原始或 -gz），与 200 响应一样声明 Vary
+        String matchedEtag = SurveyDetailPayload.matchingEtag(ifNoneMatch, surveyId, version,
+                precompress && acceptsGzip(acceptEncoding));
+        if (matchedEtag != null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(matchedEtag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
         }
-        Optional<Session> sessionOpt = sessionRepository.findBySessionToken(sessionToken);
-        Session session = sessionOpt.get();
 
-        // 2. 获取 username，并查询 User
-        String username = session.getUsername();
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isEmpty()) {
-            response.put("success", false);
-            response.put("message", "User not found in database.");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        // 5. 缓存未命中：从数据库加载、渲染并放入缓存
+        SurveyDetailPayload payload = surveyDetailCache.get(surveyId, version);
+        if (payload == null) {
+            List<QuestionDTO> loaded = questionRepository.findDetailsBySurveyId(surveyId);
+            payload = SurveyDetailPayload.render(surveyId, version, loaded, objectMapper, precompress);
+            surveyDetailCache.put(surveyId, payload);
         }
-        User user = userOpt.get();
 
-        // 3. 获取所有该 User 的 Survey
-        List<Survey> userSurveys = surveyRepository.findAllByUser(user);
+        // 6. 直接写出缓存的字节
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (payload.hasGzip() && acceptsGzip(acceptEncoding)) {
+            return ok.eTag(payload.getGzipEtag())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(payload.getGzip());
+        }
+        return ok.eTag(payload.getEtag()).body(payload.getJson());
+    }
 
-        // 4. 查询所有该 User 有权限访问的 Survey
-        List<Access> accesses = accessRepository.findAccessByUser(user);
-        List<Long> accessibleSurveyIds = new ArrayList<>();
-        for (Access access : accesses) {
-            accessibleSurveyIds.add(access.getSurvey().getId());
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
         }
-        for (Survey survey : userSurveys) {
-            accessibleSurveyIds.remove(survey.getId());
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
         }
+        return false;
+    }
 
-        List<Survey> accessibleSurveyList = surveyRepository.findAllById(accessibleSurveyIds);
-        userSurveys.addAll(accessibleSurveyList);
+    /**
+     * 分页获取某用户可访问的 Survey：自己创建的、被授权的以及对所有人开放的
+     */
+    public ResponseEntity<Map<String, Object>> getAccessibleSurvey(SurveyPageRequest request, AuthenticatedUser authenticatedUser) {
+        Long userId = authenticatedUser.getId();
+        String pattern = namePattern(request.getName());
+        int pageSize = resolvePageSize(request.getPageSize());
+
+        long afterId = resolveCursor(request.getAfterId());
+
+        // 1. 两路索引 keyset 扫描：自己创建的走 surveys (user_id, id)，被授权的从 access (user_id, survey_id) 关联过去；
+        //    各多取一条判断是否还有下一页
+        List<SurveySummary> owned = surveyRepository.findOwnedPage(userId, afterId, pattern, Limit.of(pageSize + 1));
+        List<SurveySummary> granted = surveyRepository.findGrantedPage(userId, afterId, pattern, Limit.of(pageSize + 1));
+
+        // 2. 公开问卷来自内存缓存，三路按 id 归并（自己创建的公开问卷两边都有，只保留一条）
+        List<SurveySummary> publicRows = publicSurveyCache.page(afterId, request.getName(), pageSize + 1);
+        List<SurveySummary> rows = mergeById(mergeById(owned, granted, pageSize + 1), publicRows, pageSize + 1);
+
+        // 3. 构造返回结果；总数与行来自同样的数据源：三路分别计数，再去掉自己创建的公开问卷的重复
+        return ResponseEntity.ok(buildPage(rows, pageSize, request.isIncludeTotal(),
+                () -> surveyRepository.countOwned(userId, pattern)
+                        + surveyRepository.countGranted(userId, pattern)
+                        + publicSurveyCache.count(request.getName())
+                        - surveyRepository.countOwnedPublic(userId, pattern)));
+    }
 
-        // 4. 构造返回结果
-        List<Map<String, Object>> surveyList = new ArrayList<>();
-        for (Survey s : userSurveys) {
+    /**
+     * 归并两个按 id 升序的列表，去掉重复 id，最多取 limit 条
+     */
+    private static List<SurveySummary> mergeById(List<SurveySummary> a, List<SurveySummary> b, int limit) {
+        List<SurveySummary> merged = new ArrayList<>(Math.min(limit, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < a.size() || j < b.size())) {
+            if (j >= b.size()) {
+                merged.add(a.get(i++));
+            } else if (i >= a.size()) {
+                merged.add(b.get(j++));
+            } else {
+                int cmp = Long.compare(a.get(i).getId(), b.get(j).getId());
+                if (cmp == 0) {
+                    j++;
+                }
+                merged.add(cmp <= 0 ? a.get(i++) : b.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private int resolvePageSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.min(requested, maxPageSize);
+    }
+
+    private static long resolveCursor(Long afterId) {
+        return afterId == null ? 0L : afterId;
+    }
+
+    /**
+     * 名称过滤：不区分大小写的子串匹配，转义 LIKE 通配符（'!' 为转义字符）
+     */
+    static String namePattern(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String escaped = name.trim().toLowerCase(Locale.ROOT)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return "%" + escaped + "%";
+    }
+
+    /**
+     * rows 最多比 pageSize 多一条；多出的那条只说明还有下一页，不返回给客户端
+     */
+    private static Map<String, Object> buildPage(List<SurveySummary> rows, int pageSize,
+                                                 boolean includeTotal, LongSupplier total) {
+        boolean hasMore = rows.size() > pageSize;
+        List<SurveySummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<Map<String, Object>> surveyList = new ArrayList<>(page.size());
+        for (SurveySummary s : page) {
             Map<String, Object> surveyData = new HashMap<>();
             surveyData.put("surveyId", s.getId());
             surveyData.put("surveyName", s.getSurveyName());
             surveyData.put("description", s.getDescription());
             surveyList.add(surveyData);
         }
-        response.put("surveys", surveyList);
 
-        return ResponseEntity.ok(response);
+        Map<String, Object> response = new HashMap<>();
+        response.put("surveys", surveyList);
+        response.put("hasMore", hasMore);
+        response.put("nextCursor", hasMore ? page.get(page.size() - 1).getId() : null);
+        if (includeTotal) {
+            response.put("total", total.getAsLong());
+        }
+        return response;
     }
 }
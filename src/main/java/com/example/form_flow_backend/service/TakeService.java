@@ -1,13 +1,12 @@
 package com.example.form_flow_backend.service;
 
+import com.example.form_flow_backend.DTO.AnswerCount;
 import com.example.form_flow_backend.DTO.GetSurveyDetailRequest;
 import com.example.form_flow_backend.DTO.TakeSurveyRequest;
 import com.example.form_flow_backend.DTO.TakesStatsDTO;
-import com.example.form_flow_backend.model.Session;
-import com.example.form_flow_backend.model.Survey;
 import com.example.form_flow_backend.model.Takes;
-import com.example.form_flow_backend.model.User;
 import com.example.form_flow_backend.repository.*;
+import com.example.form_flow_backend.security.AuthenticatedUser;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -18,64 +17,78 @@ import java.util.*;
 public class TakeService {
 
     private final TakesRepository takesRepository;
-    private final SessionRepository sessionRepository;
-    private final SessionService sessionService;
     private final UserRepository userRepository;
     private final SurveyRepository surveyRepository;
+    private final SurveyAccessIndex surveyAccessIndex;
+    private final AnswerCounters answerCounters;
+    private final TakeAnswerRepository takeAnswerRepository;
+    private final TakeStatsAggregator takeStatsAggregator;
 
     public TakeService(
             TakesRepository takesRepository,
-            SessionRepository sessionRepository,
-            SessionService sessionService,
             UserRepository userRepository,
-            SurveyRepository surveyRepository
+            SurveyRepository surveyRepository,
+            SurveyAccessIndex surveyAccessIndex,
+            AnswerCounters answerCounters,
+            TakeAnswerRepository takeAnswerRepository,
+            TakeStatsAggregator takeStatsAggregator
     ) {
         this.takesRepository = takesRepository;
-        this.sessionRepository = sessionRepository;
-        this.sessionService = sessionService;
         this.userRepository = userRepository;
         this.surveyRepository = surveyRepository;
+        this.surveyAccessIndex = surveyAccessIndex;
+        this.answerCounters = answerCounters;
+        this.takeAnswerRepository = takeAnswerRepository;
+        this.takeStatsAggregator = takeStatsAggregator;
     }
 
-    public ResponseEntity<Map<String, Object>> takeSurvey(TakeSurveyRequest request) {
+    public ResponseEntity<Map<String, Object>> takeSurvey(TakeSurveyRequest request, AuthenticatedUser authenticatedUser) {
         Map<String, Object> response = new HashMap<>();
 
-        // 1. 校验 sessionToken 是否为空
-        String sessionToken = request.getSessionToken();
-        if (sessionToken == null) {
+        // 1. 校验 surveyId
+        Long surveyId;
+        try {
+            surveyId = Long.valueOf(request.getSurveyId());
+        } catch (NumberFormatException e) {
             response.put("success", false);
-            response.put("message", "Session token is missing.");
+            response.put("message", "Invalid survey ID.");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
 
-        // 2. 验证 sessionToken 是否有效
-        if (!sessionService.verifySession(sessionToken)) {
+        // 2. 内存 ACL 同时确认 Survey 存在且当前用户可以作答
+        SurveyAccessIndex.SurveyAcl acl = surveyAccessIndex.find(surveyId);
+        if (acl == null) {
             response.put("success", false);
-            response.put("message", "Unauthorized or session expired.");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            response.put("message", "Survey not found in database.");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
-
-        // 3. 在数据库中找对应的 Session
-        Optional<Session> sessionOpt = sessionRepository.findBySessionToken(sessionToken);
-        if (sessionOpt.isEmpty()) {
-            // 如果在数据库里也没找到这条 session 记录，就返回 401
+        if (!acl.allows(authenticatedUser.getId())) {
             response.put("success", false);
-            response.put("message", "Unauthorized or session expired. (Session not found in DB)");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            response.put("message", "You do not have access to this survey.");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
         }
-        Session session = sessionOpt.get();
 
-        // 4. 根据 username 找到对应的用户
-        String username = session.getUsername();
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isEmpty()) {
-            response.put("success", false);
-            response.put("message", "User not found in database.");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
-        User user = userOpt.get();
+        // 3. 保存 Takes 和拆分后的 take_answers（User 和 Survey 只需引用，不必查库）
+        Takes take = new Takes();
+        take.setUser(userRepository.getReferenceById(authenticatedUser.getId()));
+        take.setSurvey(surveyRepository.getReferenceById(surveyId));
+        take.setAnswers(request.getAnswers());
+
+        takesRepository.saveWithAnswers(take);
+
+        // 4. 答卷已提交，累加内存计数（定时批量写入 answer_counters）
+        answerCounters.record(surveyId, request.getAnswers());
+
+        // 5. 返回成功响应
+        response.put("success", true);
+        response.put("message", "Answers saved successfully.");
+        return ResponseEntity.ok(response);
+    }
 
-        // 5. 校验 surveyId
+    public ResponseEntity<Map<String, Object>> getSurveyTakeStatistics(GetSurveyDetailRequest request) {
+        Map<String, Object> response = new HashMap<>();
+
+        // 1. 校验 SurveyId
         Long surveyId;
         try {
             surveyId = Long.valueOf(request.getSurveyId());
@@ -85,57 +98,74 @@ public class TakeService {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
 
-        // 6. 查询 Survey
-        Optional<Survey> surveyOpt = surveyRepository.findById(surveyId);
-        if (surveyOpt.isEmpty()) {
+        // 2. 读取计数（不扫描 takes），按 question_order 升序
+        SortedMap<Integer, Map<String, Long>> counts = answerCounters.countsFor(surveyId);
+        if (counts.isEmpty()) {
             response.put("success", false);
-            response.put("message", "Survey not found in database.");
+            response.put("message", "No takes found for this survey.");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
-        Survey survey = surveyOpt.get();
-
-        // 7. 保存 Takes
-        Takes take = new Takes();
-        take.setUser(user);
-        take.setSurvey(survey);
-        take.setAnswers(request.getAnswers());
 
-        takesRepository.save(take);
-
-        // 8. 返回成功响应
+        // 3. 返回结果
         response.put("success", true);
-        response.put("message", "Answers saved successfully.");
+        response.put("stats", toStatsDTOs(counts));
         return ResponseEntity.ok(response);
     }
 
-    public ResponseEntity<Map<String, Object>> getSurveyTakeStatistics(GetSurveyDetailRequest request) {
+    /**
+     * 审计用：不读计数表，由数据库对 take_answers 做 GROUP BY 重新统计。只有问卷创建者可以调用。
+     */
+    public ResponseEntity<Map<String, Object>> recomputeSurveyTakeStatistics(GetSurveyDetailRequest request,
+                                                                             AuthenticatedUser authenticatedUser) {
         Map<String, Object> response = new HashMap<>();
 
-        // 1. 校验 sessionToken 是否为空
-        String sessionToken = request.getSessionToken();
-        if (sessionToken == null) {
+        // 1. 校验 SurveyId
+        Long surveyId;
+        try {
+            surveyId = Long.valueOf(request.getSurveyId());
+        } catch (NumberFormatException e) {
             response.put("success", false);
-            response.put("message", "Session token is missing.");
+            response.put("message", "Invalid survey ID.");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
 
-        // 2. 验证 sessionToken 是否有效
-        if (!sessionService.verifySession(sessionToken)) {
+        // 2. 全量统计代价高，只对创建者开放
+        SurveyAccessIndex.SurveyAcl acl = surveyAccessIndex.find(surveyId);
+        if (acl == null) {
+            response.put("success", false);
+            response.put("message", "Survey not found in database.");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        if (!acl.ownedBy(authenticatedUser.getId())) {
             response.put("success", false);
-            response.put("message", "Unauthorized or session expired.");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            response.put("message", "Only the survey owner can recompute statistics.");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
         }
 
-        // 3. 在数据库中找对应的 Session
-        Optional<Session> sessionOpt = sessionRepository.findBySessionToken(sessionToken);
-        if (sessionOpt.isEmpty()) {
+        // 3. 聚合在数据库完成，每个不同答案只返回一行
+        SortedMap<Integer, Map<String, Long>> counts = takeAnswerCounts(surveyId);
+        if (counts.isEmpty()) {
             response.put("success", false);
-            response.put("message", "Unauthorized or session expired. (Session not found in DB)");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            response.put("message", "No takes found for this survey.");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
-        Session session = sessionOpt.get();
 
-        // 4. 校验 SurveyId
+        // 4. 返回结果
+        response.put("success", true);
+        response.put("stats", toStatsDTOs(counts));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 运维审计：直接从 takes.answers 重新统计（游标流式读取，大问卷并行计数），
+     * 并与 answer_counters（含本节点未写出的增量）和 take_answers 的统计逐项比较。
+     * 其他节点最近 stats.counters.flush-interval 内的答卷还没写入计数表，可能短暂显示为差异。
+     * 只有 OPERATOR 角色可以调用（见 SecurityConfig）。
+     */
+    public ResponseEntity<Map<String, Object>> auditSurveyTakeStatistics(GetSurveyDetailRequest request) {
+        Map<String, Object> response = new HashMap<>();
+
+        // 1. 校验 SurveyId
         Long surveyId;
         try {
             surveyId = Long.valueOf(request.getSurveyId());
@@ -144,47 +174,77 @@ public class TakeService {
             response.put("message", "Invalid survey ID.");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
-
-        // 5. 查询 Takes
-        List<Takes> takes = takesRepository.findTakesBySurveyId(surveyId);
-        if (takes.isEmpty()) {
+        if (surveyAccessIndex.find(surveyId) == null) {
             response.put("success", false);
-            response.put("message", "No takes found for this survey.");
+            response.put("message", "Survey not found in database.");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
 
-        // 6. 计算回答的数量分布
-        Takes takePeek = takes.get(0); // 改成 get(0) 而不是 getFirst()
-        String[] peekSplit = takePeek.getAnswers().split(";");
-        int surveyLen = peekSplit.length;
+        // 2. 以 takes.answers 为准重新统计
+        SortedMap<Integer, Map<String, Long>> expected = takeStatsAggregator.aggregate(surveyId);
 
-        ArrayList<TakesStatsDTO> takesStatsDTOS = new ArrayList<>();
-        for (int i = 0; i < surveyLen; i++) {
-            TakesStatsDTO takesStatsDTO = new TakesStatsDTO();
-            takesStatsDTO.setQuestion_order(i + 1);
-            takesStatsDTO.setStats(new HashMap<>());
-            takesStatsDTOS.add(takesStatsDTO);
+        // 3. 与两份派生数据比较
+        List<Map<String, Object>> counterDifferences = differences(expected, answerCounters.countsFor(surveyId));
+        List<Map<String, Object>> takeAnswerDifferences = differences(expected, takeAnswerCounts(surveyId));
+
+        // 4. 返回结果
+        response.put("success", true);
+        response.put("stats", toStatsDTOs(expected));
+        response.put("answerCounterDifferences", counterDifferences);
+        response.put("takeAnswerDifferences", takeAnswerDifferences);
+        return ResponseEntity.ok(response);
+    }
+
+    private SortedMap<Integer, Map<String, Long>> takeAnswerCounts(Long surveyId) {
+        SortedMap<Integer, Map<String, Long>> counts = new TreeMap<>();
+        for (AnswerCount row : takeAnswerRepository.countAnswersBySurveyId(surveyId)) {
+            counts.computeIfAbsent(row.getQuestionOrder(), order -> new HashMap<>()).put(row.getAnswer(), row.getCount());
         }
+        return counts;
+    }
 
-        // 7. 填充统计
-        for (Takes singleTake : takes) {
-            String[] answers = singleTake.getAnswers().split(";");
-            for (int i = 0; i < surveyLen; i++) {
-                String[] answerParts = answers[i].split(",");
-                TakesStatsDTO dto = takesStatsDTOS.get(i);
-
-                for (String ans : answerParts) {
-                    dto.getStats().put(
-                            ans,
-                            dto.getStats().getOrDefault(ans, 0) + 1
-                    );
+    /**
+     * 每个计数不一致的 (question_order, answer) 一项：{question_order, answer, expected, actual}，按题号、答案排序
+     */
+    private static List<Map<String, Object>> differences(SortedMap<Integer, Map<String, Long>> expected,
+                                                         SortedMap<Integer, Map<String, Long>> actual) {
+        SortedSet<Integer> questionOrders = new TreeSet<>(expected.keySet());
+        questionOrders.addAll(actual.keySet());
+        List<Map<String, Object>> differences = new ArrayList<>();
+        for (Integer questionOrder : questionOrders) {
+            Map<String, Long> expectedCounts = expected.getOrDefault(questionOrder, Map.of());
+            Map<String, Long> actualCounts = actual.getOrDefault(questionOrder, Map.of());
+            SortedSet<String> answers = new TreeSet<>(expectedCounts.keySet());
+            answers.addAll(actualCounts.keySet());
+            for (String answer : answers) {
+                long expectedCount = expectedCounts.getOrDefault(answer, 0L);
+                long actualCount = actualCounts.getOrDefault(answer, 0L);
+                if (expectedCount != actualCount) {
+                    Map<String, Object> difference = new LinkedHashMap<>();
+                    difference.put("question_order", questionOrder);
+                    difference.put("answer", answer);
+                    difference.put("expected", expectedCount);
+                    difference.put("actual", actualCount);
+                    differences.add(difference);
                 }
             }
         }
+        return differences;
+    }
 
-        // 8. 返回结果
-        response.put("success", true);
-        response.put("stats", takesStatsDTOS);
-        return ResponseEntity.ok(response);
+    /**
+     * 每题一个 TakesStatsDTO，按 question_order 升序
+     */
+    private static List<TakesStatsDTO> toStatsDTOs(SortedMap<Integer, Map<String, Long>> counts) {
+        List<TakesStatsDTO> takesStatsDTOS = new ArrayList<>(counts.size());
+        counts.forEach((questionOrder, answerCounts) -> {
+            TakesStatsDTO takesStatsDTO = new TakesStatsDTO();
+            takesStatsDTO.setQuestion_order(questionOrder);
+            HashMap<String, Integer> stats = new HashMap<>();
+            answerCounts.forEach((answer, count) -> stats.put(answer, Math.toIntExact(count)));
+            takesStatsDTO.setStats(stats);
+            takesStatsDTOS.add(takesStatsDTO);
+        });
+        return takesStatsDTOS;
     }
 }
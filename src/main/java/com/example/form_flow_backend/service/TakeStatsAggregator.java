@@ -0,0 +1,104 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.repository.TakesRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes answer counts from takes.answers itself, without depending on answer_counters or take_answers,
+ * so the operator audit endpoint (TakeService.auditSurveyTakeStatistics) can check both against it.
+ * Answers are streamed through a database cursor, so heap use depends on the number of distinct
+ * answers, not on the number of takes.
+ * <p>
+ * The first parallelThreshold takes are counted on the calling thread; a survey with more takes
+ * hands the rest to a dedicated ForkJoinPool in chunks of chunkSize. Each chunk is counted into its
+ * own {@link AnswerHistogram} and the histograms are added up, so the result is the same as counting
+ * sequentially.
+ * The cursor itself is only read by the calling thread, and at most two chunks per worker are in
+ * flight at once.
+ */
+@Component
+public class TakeStatsAggregator {
+
+    private final TakesRepository takesRepository;
+    private final int parallelThreshold;
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+    private final ForkJoinPool pool;
+
+    public TakeStatsAggregator(TakesRepository takesRepository,
+                               @Value("${stats.aggregate.parallel-threshold:50000}") int parallelThreshold,
+                               @Value("${stats.aggregate.chunk-size:8192}") int chunkSize,
+                               @Value("${stats.aggregate.parallelism:0}") int parallelism) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("stats.aggregate.chunk-size must be at least 1");
+        }
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.takesRepository = takesRepository;
+        this.parallelThreshold = parallelThreshold;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = threads * 2;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Same shape as AnswerCounters.countsFor: question order (ascending) -> answer (ascending) -> count.
+     */
+    @Transactional(readOnly = true)
+    public SortedMap<Integer, Map<String, Long>> aggregate(long surveyId) {
+        AnswerHistogram histogram = new AnswerHistogram();
+        try (Stream<String> answers = takesRepository.streamAnswersBySurveyId(surveyId)) {
+            Iterator<String> takes = answers.iterator();
+
+            // 1. 小问卷直接在当前线程累加
+            for (int counted = 0; counted < parallelThreshold && takes.hasNext(); counted++) {
+                histogram.add(takes.next());
+            }
+
+            // 2. 剩下的按 chunk 分给 worker，每个 chunk 一个局部直方图；按提交顺序合并，在途 chunk 数有上限
+            Deque<ForkJoinTask<AnswerHistogram>> inFlight = new ArrayDeque<>();
+            try {
+                while (takes.hasNext()) {
+                    List<String> chunk = new ArrayList<>(chunkSize);
+                    while (chunk.size() < chunkSize && takes.hasNext()) {
+                        chunk.add(takes.next());
+                    }
+                    if (inFlight.size() == maxChunksInFlight) {
+                        histogram.merge(inFlight.removeFirst().join());
+                    }
+                    inFlight.addLast(pool.submit(() -> count(chunk)));
+                }
+                while (!inFlight.isEmpty()) {
+                    histogram.merge(inFlight.removeFirst().join());
+                }
+            } finally {
+                inFlight.forEach(task -> task.cancel(true));
+            }
+        }
+        return histogram.toCounts();
+    }
+
+    private static AnswerHistogram count(List<String> takes) {
+        AnswerHistogram histogram = new AnswerHistogram();
+        takes.forEach(histogram::add);
+        return histogram;
+    }
+}
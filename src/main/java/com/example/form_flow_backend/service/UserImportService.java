@@ -0,0 +1,344 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.model.User;
+import com.example.form_flow_backend.repository.UserRepository;
+import com.example.form_flow_backend.security.BoundedPasswordEncoder;
+import com.example.form_flow_backend.security.PasswordHashingUnavailableException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Imports many users from one streamed request body.
+ * The body is read chunk by chunk (user.import.chunk-size rows). For each chunk
+ * duplicates are found with two IN queries, passwords are hashed in parallel on the
+ * password-hashing pool and the new users are written with one JDBC batch.
+ * <p>
+ * Supported formats:
+ * <ul>
+ *     <li>CSV: a header line naming the columns username, email and password, then one user per line.
+ *     Fields may be quoted as in RFC 4180 ("a,b" and "say ""hi""" are single fields), but a quoted
+ *     field cannot span lines; such a row is reported as invalid.</li>
+ *     <li>NDJSON: one {"username", "email", "password"} object per line</li>
+ * </ul>
+ */
+@Service
+public class UserImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private final UserRepository userRepository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public UserImportService(UserRepository userRepository,
+                             BoundedPasswordEncoder passwordEncoder,
+                             ObjectMapper objectMapper,
+                             @Value("${user.import.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports the users in the body and reports the outcome of every row.
+     *
+     * @param body   the request body
+     * @param format the body format
+     * @return counts per status and a "results" list of {row, username, status, message}
+     */
+    public ResponseEntity<Map<String, Object>> importUsers(InputStream body, Format format) throws IOException {
+        Map<String, Object> response = new HashMap<>();
+        List<Map<String, Object>> results = new ArrayList<>();
+        // 整个导入过程中已出现过的用户名 / 邮箱，用于发现文件内部重复
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        int[] csvColumns = null;
+        if (format == Format.CSV) {
+            csvColumns = parseCsvHeader(reader.readLine());
+            if (csvColumns == null) {
+                response.put("success", false);
+                response.put("message", "CSV header must contain username, email and password.");
+                return ResponseEntity.badRequest().body(response);
+            }
+        }
+
+        // 1. 逐块读取并处理，内存中最多只有一个块
+        int rowNumber = 0;
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            chunk.add(parseRow(rowNumber, line, format, csvColumns));
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, seenUsernames, seenEmails, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, seenUsernames, seenEmails, results);
+        }
+
+        // 2. 汇总结果
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Map<String, Object> result : results) {
+            counts.merge((String) result.get("status"), 1, Integer::sum);
+        }
+        response.put("success", true);
+        response.put("message", "Import finished.");
+        response.put("total", results.size());
+        response.put("counts", counts);
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
+
+    private void importChunk(List<ImportRow> chunk, Set<String> seenUsernames, Set<String> seenEmails,
+                             List<Map<String, Object>> results) {
+        // 1. 校验字段，并排除文件内部重复
+        List<ImportRow> candidates = new ArrayList<>();
+        for (ImportRow row : chunk) {
+            if (row.error != null) {
+                continue;
+            }
+            if (!seenUsernames.add(row.username)) {
+                row.reject("duplicate", "Username appears earlier in the import");
+            } else if (!seenEmails.add(row.email)) {
+                row.reject("duplicate", "Email appears earlier in the import");
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        // 2. 用 IN 查询一次性找出数据库中已存在的用户名和邮箱
+        if (!candidates.isEmpty()) {
+            Set<String> existingUsernames = new HashSet<>(userRepository.findExistingUsernames(
+                    candidates.stream().map(row -> row.username).toList()));
+            Set<String> existingEmails = new HashSet<>(userRepository.findExistingEmails(
+                    candidates.stream().map(row -> row.email).toList()));
+            candidates.removeIf(row -> {
+                if (existingUsernames.contains(row.username)) {
+                    row.reject("duplicate", "Username already exists");
+                    return true;
+                }
+                if (existingEmails.contains(row.email)) {
+                    row.reject("duplicate", "Email already exists");
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        // 3. 并行计算密码哈希，再批量插入
+        if (!candidates.isEmpty()) {
+            List<String> hashes;
+            try {
+                hashes = passwordEncoder.encodeAll(candidates.stream().map(row -> row.password).toList());
+            } catch (PasswordHashingUnavailableException e) {
+                candidates.forEach(row -> row.reject("failed", "Server busy, please retry."));
+                candidates.clear();
+                hashes = List.of();
+            }
+            List<User> users = new ArrayList<>(candidates.size());
+            for (int i = 0; i < candidates.size(); i++) {
+                users.add(candidates.get(i).toUser(hashes.get(i)));
+            }
+            if (!users.isEmpty()) {
+                insert(candidates, users);
+            }
+        }
+
+        for (ImportRow row : chunk) {
+            results.add(row.toResult());
+        }
+    }
+
+    private void insert(List<ImportRow> candidates, List<User> users) {
+        try {
+            userRepository.batchInsert(users);
+            candidates.forEach(row -> row.status = "created");
+        } catch (DataIntegrityViolationException e) {
+            // 查重之后有并发注册抢先写入：整批已回滚，逐行重试以定位冲突行
+            for (int i = 0; i < users.size(); i++) {
+                try {
+                    userRepository.batchInsert(List.of(users.get(i)));
+                    candidates.get(i).status = "created";
+                } catch (DataIntegrityViolationException rowError) {
+                    candidates.get(i).reject("duplicate", "Username or email already exists");
+                }
+            }
+        }
+    }
+
+    private ImportRow parseRow(int rowNumber, String line, Format format, int[] csvColumns) {
+        String username;
+        String email;
+        String password;
+        if (format == Format.CSV) {
+            List<String> cells = parseCsvLine(line);
+            if (cells == null) {
+                return ImportRow.invalid(rowNumber, null, "Malformed CSV line");
+            }
+            username = cell(cells, csvColumns[0]);
+            email = cell(cells, csvColumns[1]);
+            password = cell(cells, csvColumns[2]);
+        } else {
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                username = node.path("username").asText(null);
+                email = node.path("email").asText(null);
+                password = node.path("password").asText(null);
+            } catch (IOException e) {
+                return ImportRow.invalid(rowNumber, null, "Malformed JSON");
+            }
+        }
+
+        username = username == null ? null : username.trim();
+        email = email == null ? null : email.trim();
+        if (username == null || username.isEmpty()) {
+            return ImportRow.invalid(rowNumber, username, "Username is required");
+        }
+        if (email == null || !email.contains("@")) {
+            return ImportRow.invalid(rowNumber, username, "A valid email is required");
+        }
+        if (password == null || password.isEmpty()) {
+            return ImportRow.invalid(rowNumber, username, "Password is required");
+        }
+        return new ImportRow(rowNumber, username, email, password);
+    }
+
+    private static int[] parseCsvHeader(String header) {
+        if (header == null) {
+            return null;
+        }
+        List<String> cells = parseCsvLine(header);
+        if (cells == null) {
+            return null;
+        }
+        List<String> names = cells.stream()
+                .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        int[] columns = {names.indexOf("username"), names.indexOf("email"), names.indexOf("password")};
+        for (int column : columns) {
+            if (column < 0) {
+                return null;
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Splits one CSV line into fields. A field starting with '"' runs to the matching closing quote,
+     * with "" standing for one quote, and must be followed by ',' or the end of the line.
+     *
+     * @return the fields, or null if a quote is left open or a quoted field is followed by other text
+     */
+    private static List<String> parseCsvLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        int i = 0;
+        while (true) {
+            if (i < line.length() && line.charAt(i) == '"') {
+                // 1. 带引号的字段：读到配对的右引号为止
+                i++;
+                while (true) {
+                    if (i >= line.length()) {
+                        return null;
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        cell.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        cell.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < line.length() && line.charAt(i) != ',') {
+                    return null;
+                }
+            } else {
+                // 2. 普通字段：读到下一个逗号为止
+                int end = line.indexOf(',', i);
+                if (end < 0) {
+                    end = line.length();
+                }
+                cell.append(line, i, end);
+                i = end;
+            }
+            cells.add(cell.toString());
+            cell.setLength(0);
+            if (i >= line.length()) {
+                return cells;
+            }
+            i++; // 跳过逗号
+        }
+    }
+
+    private static String cell(List<String> cells, int index) {
+        return index < cells.size() ? cells.get(index) : null;
+    }
+
+    private static final class ImportRow {
+        private final int rowNumber;
+        private final String username;
+        private final String email;
+        private final String password;
+        private String status;
+        private String error;
+
+        private ImportRow(int rowNumber, String username, String email, String password) {
+            this.rowNumber = rowNumber;
+            this.username = username;
+            this.email = email;
+            this.password = password;
+        }
+
+        private static ImportRow invalid(int rowNumber, String username, String message) {
+            ImportRow row = new ImportRow(rowNumber, username, null, null);
+            row.reject("invalid", message);
+            return row;
+        }
+
+        private void reject(String status, String message) {
+            this.status = status;
+            this.error = message;
+        }
+
+        private User toUser(String passwordHash) {
+            User user = new User();
+            user.setUsername(username);
+            user.setEmail(email);
+            user.setPassword(passwordHash);
+            return user;
+        }
+
+        private Map<String, Object> toResult() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("row", rowNumber);
+            result.put("username", username);
+            result.put("status", status);
+            if (error != null) {
+                result.put("message", error);
+            }
+            return result;
+        }
+    }
+}
@@ -2,10 +2,12 @@ package com.example.form_flow_backend.service;
 
 import com.example.form_flow_backend.model.User;
 import com.example.form_flow_backend.repository.UserRepository;
+import com.example.form_flow_backend.security.PasswordHashingUnavailableException;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -76,8 +78,14 @@ public class UserManagementService {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
 
-        // Encrypt password
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        // Encrypt password (rejected with 503 when the hashing pool is saturated)
+        try {
+            user.setPassword(passwordEncoder.encode(user.getPassword()));
+        } catch (PasswordHashingUnavailableException e) {
+            response.put("success", false);
+            response.put("message", "Server busy, please retry.");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
         userRepository.save(user);
 
         response.put("success", true);
@@ -119,4 +127,25 @@ public class UserManagementService {
                 )
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
+
+    /**
+     * Configures the UserDetailsPasswordService bean.
+     * After a successful login Spring Security re-encodes the password through this service
+     * when the stored hash uses a lower BCrypt cost than password.bcrypt.strength.
+     *
+     * @param userRepository the repository for user data
+     * @return a UserDetailsPasswordService instance
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService(UserRepository userRepository) {
+        return (userDetails, newPassword) -> {
+            userRepository.findByUsername(userDetails.getUsername()).ifPresent(user -> {
+                user.setPassword(newPassword);
+                userRepository.save(user);
+            });
+            return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                    .password(newPassword)
+                    .build();
+        };
+    }
 }
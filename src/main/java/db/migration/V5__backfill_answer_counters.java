@@ -0,0 +1,55 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Fills answer_counters from the takes recorded before counters existed.
+ * Answers are split here rather than through the application's tokenizer, so this
+ * migration keeps doing what it did when it was written however that code changes.
+ */
+public class V5__backfill_answer_counters extends BaseJavaMigration {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO answer_counters (survey_id, question_order, answer, answer_count) VALUES (?, ?, ?, ?)";
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+
+        // 1. 按 (survey, question, answer) 聚合所有历史答卷
+        Map<Long, Map<Integer, Map<String, long[]>>> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT survey_id, answers FROM takes", rs -> {
+            Map<Integer, Map<String, long[]>> survey = counts.computeIfAbsent(rs.getLong(1), id -> new HashMap<>());
+            forEachAnswer(rs.getString(2), (answer, questionOrder) ->
+                    survey.computeIfAbsent(questionOrder, order -> new HashMap<>())
+                            .computeIfAbsent(answer, key -> new long[1])[0]++);
+        });
+
+        // 2. 批量写入计数表
+        List<Object[]> rows = new ArrayList<>();
+        counts.forEach((surveyId, questions) -> questions.forEach((questionOrder, answers) ->
+                answers.forEach((answer, count) -> rows.add(new Object[]{surveyId, questionOrder, answer, count[0]}))));
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    /**
+     * ';' between questions, ',' between the options of one question, question orders starting at 1.
+     */
+    private static void forEachAnswer(String answers, ObjIntConsumer<String> visitor) {
+        String[] questions = answers.split(";");
+        for (int i = 0; i < questions.length; i++) {
+            for (String answer : questions[i].split(",")) {
+                visitor.accept(answer, i + 1);
+            }
+        }
+    }
+}
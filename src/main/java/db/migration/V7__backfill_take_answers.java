@@ -0,0 +1,68 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits the answers of takes recorded before take_answers existed into take_answers rows.
+ * Takes are read in id order, CHUNK_SIZE at a time, and every chunk is committed on its own
+ * (no migration-wide transaction holding locks on millions of rows). Takes that already have
+ * rows are skipped, so a run that failed part way can simply be repeated.
+ * <p>
+ * Answers are split here rather than through AnswerTokenizer, so this migration keeps doing
+ * what it did when it was written however the application code changes.
+ */
+public class V7__backfill_take_answers extends BaseJavaMigration {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private static final String SELECT_CHUNK_SQL = "SELECT t.id, t.survey_id, t.answers FROM takes t "
+            + "WHERE t.id > ? AND NOT EXISTS (SELECT 1 FROM take_answers a WHERE a.take_id = t.id) "
+            + "ORDER BY t.id LIMIT " + CHUNK_SIZE;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO take_answers (take_id, survey_id, question_order, answer) VALUES (?, ?, ?, ?)";
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+
+        long lastId = 0;
+        while (true) {
+            // 1. 按 id 取下一批还没拆分的答卷
+            List<Object[]> rows = new ArrayList<>();
+            long[] maxId = {lastId};
+            jdbcTemplate.query(SELECT_CHUNK_SQL, rs -> {
+                long takeId = rs.getLong(1);
+                long surveyId = rs.getLong(2);
+                String answers = rs.getString(3);
+                String[] questions = answers.split(";");
+                for (int i = 0; i < questions.length; i++) {
+                    for (String answer : questions[i].split(",")) {
+                        rows.add(new Object[]{takeId, surveyId, i + 1, answer});
+                    }
+                }
+                maxId[0] = takeId;
+            }, lastId);
+            if (maxId[0] == lastId) {
+                return;
+            }
+
+            // 2. 一个批次写入（自动提交）
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            }
+            lastId = maxId[0];
+        }
+    }
+}
@@ -0,0 +1,61 @@
+-- Schema as created by spring.jpa.hibernate.ddl-auto=update before Flyway took over.
+-- Existing databases are baselined at this version and skip this script, so everything
+-- added since then belongs in the later migrations, never here.
+
+CREATE TABLE users (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    email    VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE surveys (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    survey_name VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    user_id     BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_surveys_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE questions (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    type           VARCHAR(255) NOT NULL,
+    question_order INT          NOT NULL,
+    description    VARCHAR(255) NOT NULL,
+    body           VARCHAR(255) NOT NULL,
+    survey_id      BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_questions_survey FOREIGN KEY (survey_id) REFERENCES surveys (id)
+);
+
+CREATE TABLE access (
+    id        BIGINT NOT NULL AUTO_INCREMENT,
+    user_id   BIGINT NOT NULL,
+    survey_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_access_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_access_survey FOREIGN KEY (survey_id) REFERENCES surveys (id)
+);
+
+CREATE TABLE takes (
+    id        BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id   BIGINT       NOT NULL,
+    survey_id BIGINT       NOT NULL,
+    answers   VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_takes_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_takes_survey FOREIGN KEY (survey_id) REFERENCES surveys (id)
+);
+
+CREATE TABLE sessions (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    session_token   VARCHAR(255) NOT NULL,
+    username        VARCHAR(255) NOT NULL,
+    expiration_date DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_sessions_session_token UNIQUE (session_token)
+);
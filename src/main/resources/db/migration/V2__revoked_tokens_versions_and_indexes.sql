@@ -0,0 +1,28 @@
+-- Signed session tokens logged out before they expire
+CREATE TABLE revoked_tokens (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    token_id        VARCHAR(255) NOT NULL,
+    expiration_date DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_revoked_tokens_token_id UNIQUE (token_id)
+);
+CREATE INDEX idx_revoked_tokens_expiration_date ON revoked_tokens (expiration_date);
+
+-- Bumped by every question update; cached question lists are keyed by it
+ALTER TABLE surveys ADD COLUMN questions_version BIGINT NOT NULL DEFAULT 0;
+
+-- Expired sessions are purged in batches by expiration_date
+CREATE INDEX idx_sessions_expiration_date ON sessions (expiration_date);
+
+-- Grants are listed per user and checked per survey
+CREATE INDEX idx_access_user_survey ON access (user_id, survey_id);
+CREATE INDEX idx_access_survey_user ON access (survey_id, user_id);
+
+-- Owned surveys are keyset-paginated per user
+CREATE INDEX idx_surveys_user_id_id ON surveys (user_id, id);
+
+-- Statistics and duplicate-take checks look up takes by survey, then user
+CREATE INDEX idx_takes_survey_user ON takes (survey_id, user_id);
+
+-- Question lists are read and diffed per survey in question_order
+CREATE INDEX idx_questions_survey_order ON questions (survey_id, question_order);
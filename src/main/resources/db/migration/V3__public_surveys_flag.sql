@@ -0,0 +1,7 @@
+-- Public surveys are flagged on the survey itself
+ALTER TABLE surveys ADD COLUMN is_public BIT NOT NULL DEFAULT 0;
+CREATE INDEX idx_surveys_is_public_id ON surveys (is_public, id);
+
+-- They used to be marked by an access row for the non-existent user -1
+UPDATE surveys SET is_public = TRUE WHERE id IN (SELECT survey_id FROM access WHERE user_id = -1);
+DELETE FROM access WHERE user_id = -1;
@@ -0,0 +1,12 @@
+-- Per-question, per-answer take counts; statistics read these instead of scanning takes
+CREATE TABLE answer_counters (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    survey_id      BIGINT       NOT NULL,
+    question_order INT          NOT NULL,
+    -- Binary collation: answers that differ only in case or accents are different options, as they are in Java
+    answer         VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_bin NOT NULL,
+    answer_count   BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_answer_counters_survey_question_answer UNIQUE (survey_id, question_order, answer),
+    CONSTRAINT fk_answer_counters_survey FOREIGN KEY (survey_id) REFERENCES surveys (id)
+);
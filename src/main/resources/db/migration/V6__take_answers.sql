@@ -0,0 +1,14 @@
+-- One row per option chosen in a take (Takes.answers split on ';' then ','), so the database can aggregate answers
+CREATE TABLE take_answers (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    take_id        BIGINT       NOT NULL,
+    survey_id      BIGINT       NOT NULL,
+    question_order INT          NOT NULL,
+    -- Same binary collation as answer_counters.answer, so GROUP BY keeps case and accent variants apart
+    answer         VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_bin NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_take_answers_take FOREIGN KEY (take_id) REFERENCES takes (id),
+    CONSTRAINT fk_take_answers_survey FOREIGN KEY (survey_id) REFERENCES surveys (id)
+);
+-- Covers the per-survey GROUP BY question_order, answer
+CREATE INDEX idx_take_answers_survey_question_answer ON take_answers (survey_id, question_order, answer);
@@ -18,9 +18,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -73,6 +75,22 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.username").exists());
     }
 
+    /**
+     * Tests that login is stateless: no HttpSession and no JSESSIONID cookie are created.
+     */
+    @Test
+    void testLoginCreatesNoHttpSession() throws Exception {
+        MvcResult result = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("username", "user")
+                        .param("password", "password"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().doesNotExist("JSESSIONID"))
+                .andReturn();
+
+        assertNull(result.getRequest().getSession(false));
+    }
+
     /**
      * Tests that a POST to /auth/login with invalid credentials returns the expected JSON error response.
      */
@@ -88,6 +106,28 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.message").value("Invalid credentials"));
     }
 
+    /**
+     * Tests that repeated logins for one username are rejected with 429 before the password is checked.
+     */
+    @Test
+    void testLoginThrottledPerUsername() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/auth/login")
+                            .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                            .param("username", "throttledUser")
+                            .param("password", "wrongpassword"))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("username", "throttledUser")
+                        .param("password", "wrongpassword"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
 /**
      * Test for POST /auth/logout.
      */
@@ -121,6 +161,29 @@ public class AuthControllerTest {
     }
 
 
+    /**
+     * Tests that /auth/register/bulk rejects anonymous callers with 401 instead of redirecting to a login page.
+     */
+    @Test
+    void testBulkRegister_AnonymousUnauthorized() throws Exception {
+        mockMvc.perform(post("/auth/register/bulk")
+                        .contentType("text/csv")
+                        .content("username,email,password\nx,x@example.com,pw\n"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Tests that /auth/register/bulk is closed to authenticated users without the OPERATOR role.
+     */
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void testBulkRegister_RequiresOperatorRole() throws Exception {
+        mockMvc.perform(post("/auth/register/bulk")
+                        .contentType("text/csv")
+                        .content("username,email,password\nx,x@example.com,pw\n"))
+                .andExpect(status().isForbidden());
+    }
+
     /**
      * Tests the /auth/delete endpoint in a secured context.
      * The endpoint is protected, so we use @WithMockUser to simulate an authenticated user.
@@ -0,0 +1,273 @@
+package com.example.form_flow_backend.controller;
+
+import com.example.form_flow_backend.model.Access;
+import com.example.form_flow_backend.model.Question;
+import com.example.form_flow_backend.model.Survey;
+import com.example.form_flow_backend.model.Takes;
+import com.example.form_flow_backend.model.User;
+import com.example.form_flow_backend.repository.QuestionRepository;
+import com.example.form_flow_backend.repository.SurveyRepository;
+import com.example.form_flow_backend.repository.TakesRepository;
+import com.example.form_flow_backend.repository.UserRepository;
+import com.example.form_flow_backend.repository.Access.AccessRepository;
+import com.example.form_flow_backend.security.AuthenticatedUser;
+import com.example.form_flow_backend.service.AnswerCounters;
+import com.example.form_flow_backend.service.SessionService;
+import com.example.form_flow_backend.service.SurveyAccessIndex;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each endpoint issues, so that an EAGER association
+ * or an N+1 loop sneaking back into a read path fails the build.
+ * Statements are counted on the DataSource, so JdbcTemplate batches and lookups are
+ * included alongside Hibernate's; a JDBC batch is one round trip and counts once.
+ * Authentication is mocked so only the endpoint's own statements are counted.
+ */
+@SpringBootTest(properties = {
+        "session.reaper.interval=PT1H",
+        "session.sliding.write-interval=PT1H",
+        "session.token.revocation-sync-interval=PT1H",
+        "stats.counters.flush-interval=PT1H"
+})
+@AutoConfigureMockMvc
+class StatementCountTest {
+
+    // 经过 DataSource 执行的每条语句（批量执行记一次）
+    private static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+    @TestConfiguration
+    static class StatementRecordingConfig {
+
+        @Bean
+        static BeanPostProcessor statementRecordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .afterQuery((execution, queries) -> queries.forEach(query ->
+                                    STATEMENTS.add(execution.isBatch()
+                                            ? query.getQuery() + " [batch of " + execution.getBatchSize() + "]"
+                                            : query.getQuery())))
+                            .build();
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AccessRepository accessRepository;
+
+    @Autowired
+    private TakesRepository takesRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SurveyAccessIndex surveyAccessIndex;
+
+    @Autowired
+    private AnswerCounters answerCounters;
+
+    @MockBean
+    private SessionService sessionService;
+
+    private User owner;
+    private User reader;
+    private Survey survey;
+    private final List<Long> questionIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = saveUser("count-owner");
+        reader = saveUser("count-reader");
+        when(sessionService.authenticate(anyString()))
+                .thenReturn(new AuthenticatedUser(owner.getId(), owner.getUsername(), "token"));
+
+        survey = new Survey();
+        survey.setSurveyName("Counted");
+        survey.setUser(owner);
+        survey = surveyRepository.save(survey);
+
+        Survey other = new Survey();
+        other.setSurveyName("Shared");
+        other.setUser(reader);
+        other = surveyRepository.save(other);
+
+        Access access = new Access();
+        access.setUser(owner);
+        access.setSurvey(other);
+        accessRepository.save(access);
+
+        for (int i = 1; i <= 3; i++) {
+            Question question = new Question();
+            question.setType("single");
+            question.setQuestion_order(i);
+            question.setDescription("Q" + i);
+            question.setBody("A,B");
+            question.setSurvey(survey);
+            questionIds.add(questionRepository.save(question).getId());
+
+            Takes take = new Takes();
+            take.setUser(reader);
+            take.setSurvey(survey);
+            take.setAnswers("A;B;A");
+            takesRepository.save(take);
+            answerCounters.record(survey.getId(), take.getAnswers());
+        }
+        answerCounters.flushAll();
+        // 与启动后一致：ACL 索引已包含这些问卷
+        surveyAccessIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 只删除本测试创建的数据（包括接口新建的问卷和答卷），H2 库与其他测试共用
+        // 先写出接口产生的计数，再一并删除
+        answerCounters.flushAll();
+        Object[] userIds = {owner.getId(), reader.getId()};
+        String surveys = "(SELECT id FROM surveys WHERE user_id IN (?, ?))";
+        jdbcTemplate.update("DELETE FROM answer_counters WHERE survey_id IN " + surveys, userIds);
+        jdbcTemplate.update("DELETE FROM take_answers WHERE survey_id IN " + surveys, userIds);
+        jdbcTemplate.update("DELETE FROM takes WHERE survey_id IN " + surveys, userIds);
+        jdbcTemplate.update("DELETE FROM questions WHERE survey_id IN " + surveys, userIds);
+        jdbcTemplate.update("DELETE FROM access WHERE survey_id IN " + surveys, userIds);
+        jdbcTemplate.update("DELETE FROM surveys WHERE user_id IN (?, ?)", userIds);
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", userIds);
+    }
+
+    @Test
+    void getSurveyDetail_VersionThenQuestions_ThenVersionOnly() throws Exception {
+        String body = "{\"surveyId\":\"" + survey.getId() + "\"}";
+
+        assertStatements(2, perform("/survey/get_survey_detail", body));
+        // 第二次命中缓存：只查版本号
+        assertStatements(1, perform("/survey/get_survey_detail", body));
+    }
+
+    @Test
+    void getSurvey_OneQuery() throws Exception {
+        assertStatements(1, perform("/survey/getSurvey", "{}"));
+        assertStatements(2, perform("/survey/getSurvey", "{\"includeTotal\":true}"));
+    }
+
+    @Test
+    void getAccessibleSurvey_OwnedAndGrantedScans() throws Exception {
+        // 公开问卷来自内存缓存
+        assertStatements(2, perform("/survey/get_accessible_survey", "{}"));
+    }
+
+    @Test
+    void takeSurvey_InsertAndAnswerBatch() throws Exception {
+        // 存在性和权限都由内存 ACL 索引判断；答卷一条 INSERT，take_answers 一个 JDBC 批次
+        assertStatements(2, perform("/take/take_survey",
+                "{\"surveyId\":\"" + survey.getId() + "\",\"answers\":\"A;B;A\"}"));
+    }
+
+    @Test
+    void takeSurvey_IndexMissLoadsOneAcl() throws Exception {
+        // 其他节点创建的问卷不在本地索引中：先按 id 加载这一份 ACL
+        Survey elsewhere = new Survey();
+        elsewhere.setSurveyName("Created elsewhere");
+        elsewhere.setUser(reader);
+        elsewhere = surveyRepository.save(elsewhere);
+        Access access = new Access();
+        access.setUser(owner);
+        access.setSurvey(elsewhere);
+        accessRepository.save(access);
+
+        assertStatements(3, perform("/take/take_survey",
+                "{\"surveyId\":\"" + elsewhere.getId() + "\",\"answers\":\"A\"}"));
+    }
+
+    @Test
+    void getSurveyStats_OneQuery() throws Exception {
+        assertStatements(1, perform("/take/get_survey_stats", "{\"surveyId\":\"" + survey.getId() + "\"}"));
+    }
+
+    @Test
+    void updateQuestions_OneTypoIsOneUpdate() throws Exception {
+        // 版本号查询、条件自增、加载现有问题、一条 UPDATE
+        StringBuilder questions = new StringBuilder();
+        for (int i = 0; i < questionIds.size(); i++) {
+            String description = i == 1 ? "Q2 fixed" : "Q" + (i + 1);
+            questions.append(i == 0 ? "" : ",")
+                    .append("{\"id\":").append(questionIds.get(i))
+                    .append(",\"type\":\"single\",\"question_order\":").append(i + 1)
+                    .append(",\"description\":\"").append(description)
+                    .append("\",\"body\":\"A,B\"}");
+        }
+        assertStatements(4, perform("/survey/update_questions",
+                "{\"surveyId\":\"" + survey.getId() + "\",\"questions\":[" + questions + "]}"));
+    }
+
+    @Test
+    void createSurvey_InsertsOnly() throws Exception {
+        // 引用创建者，不查询 users；INSERT 问卷、按用户名查 id、access 一个 JDBC 批次
+        assertStatements(3, perform("/survey/create",
+                "{\"surveyName\":\"New\",\"description\":\"d\",\"accessControl\":\"count-reader\"}"));
+    }
+
+    private ResultActions perform(String url, String body) throws Exception {
+        STATEMENTS.clear();
+        return mockMvc.perform(post(url)
+                        .header("X-Session-Token", "token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+    }
+
+    private void assertStatements(long expected, ResultActions ignored) {
+        List<String> executed = List.copyOf(STATEMENTS);
+        assertEquals(expected, executed.size(), "statements: " + executed);
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("pass");
+        return userRepository.save(user);
+    }
+}
@@ -2,14 +2,19 @@ package com.example.form_flow_backend.controller;
 
 import com.example.form_flow_backend.DTO.CreateSurveyRequest;
 import com.example.form_flow_backend.DTO.GetSurveyDetailRequest;
+import com.example.form_flow_backend.DTO.SurveyPageRequest;
 import com.example.form_flow_backend.DTO.UpdateQuestionsRequest;
+import com.example.form_flow_backend.security.AuthenticatedUser;
+import com.example.form_flow_backend.security.AuthenticationFailedException;
 import com.example.form_flow_backend.service.SessionService;
 import com.example.form_flow_backend.service.SurveyService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -20,6 +25,7 @@ import java.util.Map;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,6 +40,16 @@ public class SurveyControllerTest {
     @MockBean
     private SurveyService surveyService;
 
+    @MockBean
+    private SessionService sessionService;
+
+    private final AuthenticatedUser authenticatedUser = new AuthenticatedUser(1L, "testUser", "valid-token");
+
+    @BeforeEach
+    void setUp() {
+        // 所有请求体里的 sessionToken 都视为有效
+        when(sessionService.authenticate(anyString())).thenReturn(authenticatedUser);
+    }
 
     @Test
     @WithMockUser(username = "testUser")
@@ -45,7 +61,7 @@ public class SurveyControllerTest {
         serviceResponse.put("surveyId", 123L);
 
         // 当 surveyService.createSurvey(...) 被调用时，返回 200 + JSON
-        when(surveyService.createSurvey(any(CreateSurveyRequest.class)))
+        when(surveyService.createSurvey(any(CreateSurveyRequest.class), any(AuthenticatedUser.class)))
                 .thenReturn(ResponseEntity.ok(serviceResponse));
 
         // 2. 用 mockMvc 模拟 HTTP POST 请求
@@ -60,7 +76,7 @@ public class SurveyControllerTest {
 
         // 3. 验证 service 是否被正确调用
         verify(surveyService, times(1))
-                .createSurvey(any(CreateSurveyRequest.class));
+                .createSurvey(any(CreateSurveyRequest.class), any(AuthenticatedUser.class));
     }
 
     @Test
@@ -102,7 +118,7 @@ public class SurveyControllerTest {
                         Map.of("id", 2, "surveyName", "Survey B", "description", "Desc B")
                 }
         );
-        when(surveyService.getAllSurveysForUser(sessionToken))
+        when(surveyService.getAllSurveysForUser(any(SurveyPageRequest.class), eq(authenticatedUser)))
                 .thenReturn(ResponseEntity.ok(serviceResponse));
 
         // Since the controller method accepts a raw String, we need to send a JSON string literal.
@@ -113,7 +129,8 @@ public class SurveyControllerTest {
                 .andExpect(status().isOk());
 
         // Verify that the controller delegated to the service.
-        verify(surveyService).getAllSurveysForUser(sessionToken);
+        verify(sessionService).authenticate(sessionToken);
+        verify(surveyService).getAllSurveysForUser(any(SurveyPageRequest.class), eq(authenticatedUser));
     }
 
     @Test
@@ -126,7 +143,7 @@ public class SurveyControllerTest {
                         Map.of("id", 1, "type", "single", "question_order", "1", "description", "Desc A", "body", "Body A"),
                 }
         );
-        when(surveyService.getSurveyDetail(any(GetSurveyDetailRequest.class)))
+        when(surveyService.getSurveyDetail(any(GetSurveyDetailRequest.class), any(), any(), any()))
                 .thenReturn(ResponseEntity.ok(serviceResponse));
 
         String jsonRequest = "{\"sessionToken\":\"valid-token\",\"surveyId\":\"1\"}";
@@ -136,7 +153,22 @@ public class SurveyControllerTest {
                 .andExpect(status().isOk());
 
         // Verify that the controller delegated to the service.
-        verify(surveyService).getSurveyDetail(any(GetSurveyDetailRequest.class));
+        verify(surveyService).getSurveyDetail(any(GetSurveyDetailRequest.class), eq(authenticatedUser), isNull(), isNull());
+    }
+
+    @Test
+    @WithMockUser(username = "testUser")
+    public void testGetSurveyDetail_PassesConditionalHeaders() throws Exception {
+        when(surveyService.getSurveyDetail(any(GetSurveyDetailRequest.class), eq(authenticatedUser), eq("\"q1-2\""), eq("gzip")))
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"q1-2\"").build());
+
+        mockMvc.perform(post("/survey/get_survey_detail")
+                        .header("If-None-Match", "\"q1-2\"")
+                        .header("Accept-Encoding", "gzip")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sessionToken\":\"valid-token\",\"surveyId\":\"1\"}"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"q1-2\""));
     }
 
     @Test
@@ -149,7 +181,7 @@ public class SurveyControllerTest {
                         Map.of("id", 1, "type", "single", "question_order", "1", "description", "Desc A", "body", "Body A"),
                 }
         );
-        when(surveyService.getSurveyDetail(any(GetSurveyDetailRequest.class)))
+        when(surveyService.getSurveyDetail(any(GetSurveyDetailRequest.class), any(), any(), any()))
                 .thenReturn(ResponseEntity.ok(serviceResponse));
 
         String jsonRequest = "{\"sessionToken\":\"valid-token\",\"surveyId\":\"1\"}";
@@ -158,4 +190,33 @@ public class SurveyControllerTest {
                         .content(jsonRequest))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    public void testMissingSessionToken_RejectedBeforeService() throws Exception {
+        when(sessionService.authenticate(null))
+                .thenThrow(new AuthenticationFailedException(HttpStatus.BAD_REQUEST, "Session token is missing."));
+
+        mockMvc.perform(post("/survey/getSurvey")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Session token is missing."));
+
+        verifyNoInteractions(surveyService);
+    }
+
+    @Test
+    public void testSessionTokenHeader_UsedWhenPresent() throws Exception {
+        when(surveyService.getAccessibleSurvey(any(SurveyPageRequest.class), eq(authenticatedUser)))
+                .thenReturn(ResponseEntity.ok(Map.of("surveys", new Object[0])));
+
+        mockMvc.perform(post("/survey/get_accessible_survey")
+                        .header("X-Session-Token", "header-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isOk());
+
+        verify(sessionService).authenticate("header-token");
+    }
 }
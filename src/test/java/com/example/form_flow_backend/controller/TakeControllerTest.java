@@ -1,6 +1,8 @@
 package com.example.form_flow_backend.controller;
 
 import com.example.form_flow_backend.DTO.TakeSurveyRequest;
+import com.example.form_flow_backend.security.AuthenticatedUser;
+import com.example.form_flow_backend.service.SessionService;
 import com.example.form_flow_backend.service.TakeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -15,11 +17,13 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,6 +41,9 @@ class TakeControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @MockBean
+    private SessionService sessionService;
+
     @Test
     void testTakeSurvey() throws Exception {
         // 构造 mock 返回数据
@@ -47,7 +54,9 @@ class TakeControllerTest {
         ResponseEntity<Map<String, Object>> mockResponse = ResponseEntity.ok(mockBody);
 
         // mock TakeService
-        when(takeService.takeSurvey(any(TakeSurveyRequest.class)))
+        when(sessionService.authenticate(anyString()))
+                .thenReturn(new AuthenticatedUser(1L, "user", "token123"));
+        when(takeService.takeSurvey(any(TakeSurveyRequest.class), any(AuthenticatedUser.class)))
                 .thenReturn(mockResponse);
 
         // 构造请求体
@@ -75,6 +84,8 @@ class TakeControllerTest {
         ResponseEntity<Map<String, Object>> mockResponse = ResponseEntity.ok(mockBody);
 
         // mock TakeService
+        when(sessionService.authenticate(anyString()))
+                .thenReturn(new AuthenticatedUser(1L, "user", "token123"));
         when(takeService.getSurveyTakeStatistics(any()))
                 .thenReturn(mockResponse);
 
@@ -0,0 +1,192 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.DTO.SurveySummary;
+import com.example.form_flow_backend.model.Access;
+import com.example.form_flow_backend.model.Survey;
+import com.example.form_flow_backend.model.User;
+import com.example.form_flow_backend.repository.Access.AccessRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the old accessible-survey resolution (load every Access, subtract owned ids with
+ * List.remove, then findAllById) against the owned and granted keyset scans, with 10k grants for one user.
+ * The keyset scans are then repeated after adding INVISIBLE surveys (and their access rows) the reader
+ * cannot see: their cost must depend on what the reader can see, not on the size of the tables.
+ * Run with ./gradlew benchmark.
+ */
+@Tag("benchmark")
+@DataJpaTest
+class AccessibleSurveyBenchmarkTest {
+
+    private static final int GRANTS = 10_000;
+    private static final int OWNED = 500;
+    private static final int INVISIBLE = 200_000;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccessRepository accessRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User reader;
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        reader = saveUser("reader");
+        author = saveUser("author");
+
+        List<Survey> surveys = new ArrayList<>();
+        for (int i = 0; i < GRANTS; i++) {
+            surveys.add(survey("granted-" + i, author));
+        }
+        for (int i = 0; i < OWNED; i++) {
+            surveys.add(survey("owned-" + i, reader));
+        }
+        surveyRepository.saveAll(surveys);
+
+        List<Access> accesses = new ArrayList<>();
+        for (Survey survey : surveys) {
+            Access access = new Access();
+            access.setSurvey(survey);
+            access.setUser(reader);
+            accesses.add(access);
+        }
+        accessRepository.saveAll(accesses);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void compareLegacyAndKeysetScans_AndKeysetScansIgnoreInvisibleSurveys() {
+        int expected = GRANTS + OWNED;
+        long legacyNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            assertEquals(expected, legacyAccessibleSurveys(reader.getId()).size());
+            legacyNanos = Math.min(legacyNanos, System.nanoTime() - start);
+        }
+        long visibleOnlyNanos = bestPagedNanos(expected);
+
+        seedInvisibleSurveys();
+        long withInvisibleNanos = bestPagedNanos(expected);
+
+        System.out.printf("accessible surveys (%d rows): legacy %.1f ms, owned + granted keyset scans "
+                        + "(all pages of 200) %.1f ms, same with %d invisible surveys %.1f ms%n",
+                expected, legacyNanos / 1e6, visibleOnlyNanos / 1e6, INVISIBLE, withInvisibleNanos / 1e6);
+        // 一次全表扫描（旧的 OR + EXISTS 写法）每页都要走 INVISIBLE 行，会慢一个数量级以上；这里留足噪声余量
+        assertTrue(withInvisibleNanos < visibleOnlyNanos * 3 + 50_000_000L,
+                "keyset scans slowed down from " + visibleOnlyNanos / 1_000_000 + " ms to "
+                        + withInvisibleNanos / 1_000_000 + " ms after adding surveys the reader cannot see");
+    }
+
+    private long bestPagedNanos(int expected) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            assertEquals(expected, pagedAccessibleSurveyCount(reader.getId()));
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /**
+     * Surveys owned by and granted to other users, inserted with JDBC batches; none is visible to the reader.
+     */
+    private void seedInvisibleSurveys() {
+        User stranger = saveUser("stranger");
+        entityManager.flush();
+        int batch = 10_000;
+        for (int from = 0; from < INVISIBLE; from += batch) {
+            List<Object[]> rows = new ArrayList<>(batch);
+            for (int i = from; i < from + batch; i++) {
+                rows.add(new Object[]{"invisible-" + i, stranger.getId()});
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO surveys (survey_name, is_public, questions_version, user_id) VALUES (?, FALSE, 0, ?)", rows);
+        }
+        jdbcTemplate.update("INSERT INTO access (survey_id, user_id) SELECT id, ? FROM surveys WHERE user_id = ?",
+                author.getId(), stranger.getId());
+    }
+
+    /**
+     * The pre-change SurveyService.getAccessibleSurvey algorithm.
+     */
+    private List<Survey> legacyAccessibleSurveys(Long userId) {
+        List<Survey> userSurveys = new ArrayList<>(entityManager
+                .createQuery("SELECT s FROM Survey s WHERE s.user.id = :userId", Survey.class)
+                .setParameter("userId", userId)
+                .getResultList());
+        List<Access> accesses = entityManager
+                .createQuery("SELECT a FROM Access a WHERE a.user.id = :userId OR a.user.id = -1", Access.class)
+                .setParameter("userId", userId)
+                .getResultList();
+        List<Long> accessibleSurveyIds = new ArrayList<>();
+        for (Access access : accesses) {
+            accessibleSurveyIds.add(access.getSurvey().getId());
+        }
+        for (Survey survey : userSurveys) {
+            accessibleSurveyIds.remove(survey.getId());
+        }
+        userSurveys.addAll(surveyRepository.findAllById(accessibleSurveyIds));
+        return userSurveys;
+    }
+
+    private int pagedAccessibleSurveyCount(Long userId) {
+        return countAllPages(cursor -> surveyRepository.findOwnedPage(userId, cursor, null, Limit.of(200)))
+                + countAllPages(cursor -> surveyRepository.findGrantedPage(userId, cursor, null, Limit.of(200)));
+    }
+
+    private static int countAllPages(LongFunction<List<SurveySummary>> pageAfter) {
+        int total = 0;
+        long cursor = 0L;
+        while (true) {
+            List<SurveySummary> page = pageAfter.apply(cursor);
+            total += page.size();
+            if (page.size() < 200) {
+                return total;
+            }
+            cursor = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("pass");
+        return userRepository.save(user);
+    }
+
+    private static Survey survey(String name, User owner) {
+        Survey survey = new Survey();
+        survey.setSurveyName(name);
+        survey.setUser(owner);
+        return survey;
+    }
+}
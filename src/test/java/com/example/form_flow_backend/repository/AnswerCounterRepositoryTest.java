@@ -0,0 +1,78 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.DTO.AnswerCount;
+import com.example.form_flow_backend.model.Survey;
+import com.example.form_flow_backend.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class AnswerCounterRepositoryTest {
+
+    @Autowired
+    private AnswerCounterRepository answerCounterRepository;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long surveyId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setUsername("counter-owner");
+        owner.setEmail("counter-owner@example.com");
+        owner.setPassword("pass");
+        owner = userRepository.save(owner);
+
+        Survey survey = new Survey();
+        survey.setSurveyName("Counted");
+        survey.setUser(owner);
+        surveyId = surveyRepository.saveAndFlush(survey).getId();
+    }
+
+    @Test
+    void addCounts_CreatesThenIncrementsRows() {
+        answerCounterRepository.addCounts(List.of(
+                new AnswerCount(surveyId, 2, "B", 1L),
+                new AnswerCount(surveyId, 1, "A", 3L)));
+        answerCounterRepository.addCounts(List.of(
+                new AnswerCount(surveyId, 1, "A", 2L),
+                new AnswerCount(surveyId, 1, "C", 1L)));
+
+        List<AnswerCount> counts = answerCounterRepository.findCountsBySurveyId(surveyId);
+
+        assertEquals(List.of("1:A=5", "1:C=1", "2:B=1"), counts.stream()
+                .map(c -> c.getQuestionOrder() + ":" + c.getAnswer() + "=" + c.getCount())
+                .toList());
+    }
+
+    @Test
+    void addCounts_KeepsAnswersDifferingInCaseOrAccentApart() {
+        answerCounterRepository.addCounts(List.of(
+                new AnswerCount(surveyId, 1, "Yes", 1L),
+                new AnswerCount(surveyId, 1, "yes", 2L),
+                new AnswerCount(surveyId, 1, "\u00e9", 3L),
+                new AnswerCount(surveyId, 1, "e", 4L)));
+
+        assertEquals(4, answerCounterRepository.findCountsBySurveyId(surveyId).size());
+    }
+
+    @Test
+    void compareCodePoints_OrdersSupplementaryCharactersAfterBmp() {
+        // U+1F600 的 UTF-16 代理对以 0xD83D 开头，String.compareTo 会把它排在 U+FFFD 之前
+        assertTrue("\uD83D\uDE00".compareTo("\uFFFD") < 0);
+        assertTrue(AnswerCounterRepositoryCustomImpl.compareCodePoints("\uD83D\uDE00", "\uFFFD") > 0);
+        assertTrue(AnswerCounterRepositoryCustomImpl.compareCodePoints("A", "AB") < 0);
+        assertEquals(0, AnswerCounterRepositoryCustomImpl.compareCodePoints("yes", "yes"));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.model.Access;
+import com.example.form_flow_backend.model.Question;
+import com.example.form_flow_backend.model.Survey;
+import com.example.form_flow_backend.model.User;
+import com.example.form_flow_backend.repository.Access.AccessRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Inserts per second for a 1k-user access list and a 500-question survey, JPA saveAll
+ * (one round trip per IDENTITY row) against the JDBC batch paths.
+ * H2 has no network round trip, so the gap on MySQL with rewriteBatchedStatements is larger.
+ * Run with ./gradlew benchmark; rates are printed rather than asserted.
+ */
+@Tag("benchmark")
+@DataJpaTest
+class BatchInsertBenchmarkTest {
+
+    private static final int ACCESS_ROWS = 1_000;
+    private static final int QUESTIONS = 500;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private AccessRepository accessRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<User> users = new ArrayList<>();
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = saveUser("owner");
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < ACCESS_ROWS; i++) {
+            User user = new User();
+            user.setUsername("grantee-" + i);
+            user.setEmail("grantee-" + i + "@example.com");
+            user.setPassword("pass");
+            batch.add(user);
+        }
+        users.addAll(userRepository.saveAll(batch));
+    }
+
+    @Test
+    void accessList() {
+        List<Long> userIds = users.stream().map(User::getId).toList();
+
+        double perRow = bestRate(ACCESS_ROWS, () -> {
+            Survey survey = newSurvey();
+            List<Access> accesses = new ArrayList<>();
+            for (User user : users) {
+                Access access = new Access();
+                access.setSurvey(survey);
+                access.setUser(user);
+                accesses.add(access);
+            }
+            accessRepository.saveAll(accesses);
+            return survey;
+        });
+        double batched = bestRate(ACCESS_ROWS, () -> {
+            Survey survey = newSurvey();
+            accessRepository.batchInsert(survey.getId(), userIds);
+            return survey;
+        });
+
+        System.out.printf("access rows (%d): saveAll %.0f rows/s, batchInsert %.0f rows/s%n",
+                ACCESS_ROWS, perRow, batched);
+    }
+
+    @Test
+    void surveyQuestions() {
+        double perRow = bestRate(QUESTIONS, () -> {
+            Survey survey = newSurvey();
+            questionRepository.saveAll(questions(survey));
+            return survey;
+        });
+        double batched = bestRate(QUESTIONS, () -> {
+            Survey survey = newSurvey();
+            assertEquals(QUESTIONS, questionRepository.applyChanges(survey.getId(), 0L, questions(survey))
+                    .orElseThrow().getInserted());
+            return survey;
+        });
+
+        System.out.printf("questions (%d): saveAll %.0f rows/s, applyChanges %.0f rows/s%n",
+                QUESTIONS, perRow, batched);
+    }
+
+    private double bestRate(int rows, Supplier<Survey> insert) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            insert.get();
+            entityManager.flush();
+            best = Math.min(best, System.nanoTime() - start);
+            entityManager.clear();
+        }
+        return rows / (best / 1e9);
+    }
+
+    private Survey newSurvey() {
+        Survey survey = new Survey();
+        survey.setSurveyName("bench");
+        survey.setUser(entityManager.getReference(User.class, owner.getId()));
+        return surveyRepository.save(survey);
+    }
+
+    private static List<Question> questions(Survey survey) {
+        List<Question> questions = new ArrayList<>(QUESTIONS);
+        for (int i = 1; i <= QUESTIONS; i++) {
+            Question question = new Question();
+            question.setType("single");
+            question.setQuestion_order(i);
+            question.setDescription("Question " + i);
+            question.setBody("A,B,C,D");
+            question.setSurvey(survey);
+            questions.add(question);
+        }
+        return questions;
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("pass");
+        return userRepository.save(user);
+    }
+}
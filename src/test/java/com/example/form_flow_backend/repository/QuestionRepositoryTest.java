@@ -0,0 +1,138 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.DTO.QuestionChanges;
+import com.example.form_flow_backend.DTO.QuestionDTO;
+import com.example.form_flow_backend.model.Question;
+import com.example.form_flow_backend.model.Survey;
+import com.example.form_flow_backend.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class QuestionRepositoryTest {
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Survey survey;
+    private List<Question> stored;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("editor");
+        user.setEmail("editor@example.com");
+        user.setPassword("pass");
+        user = userRepository.save(user);
+
+        survey = new Survey();
+        survey.setSurveyName("Diffed");
+        survey.setUser(user);
+        survey = surveyRepository.save(survey);
+
+        stored = List.of(
+                questionRepository.save(question(null, 1, "First")),
+                questionRepository.save(question(null, 2, "Second")),
+                questionRepository.save(question(null, 3, "Third")));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void applyChanges_TypoMatchedByOrderUpdatesOneRow() {
+        // 客户端不带 id，按 question_order 匹配
+        List<Question> incoming = List.of(
+                question(null, 1, "First"),
+                question(null, 2, "Secnod fixed"),
+                question(null, 3, "Third"));
+
+        QuestionChanges changes = questionRepository.applyChanges(survey.getId(), 0L, incoming).orElseThrow();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(0, changes.getInserted());
+        assertEquals(1, changes.getUpdated());
+        assertEquals(0, changes.getDeleted());
+        assertEquals(1L, changes.getQuestionsVersion());
+
+        List<QuestionDTO> after = questionRepository.findDetailsBySurveyId(survey.getId());
+        assertEquals(stored.stream().map(Question::getId).toList(), after.stream().map(QuestionDTO::getId).toList());
+        assertEquals("Secnod fixed", after.get(1).getDescription());
+        assertEquals(Optional.of(1L), surveyRepository.findQuestionsVersionById(survey.getId()));
+    }
+
+    @Test
+    void applyChanges_InsertsAndDeletesById() {
+        Question kept = question(stored.get(0).getId(), 1, "First");
+        Question added = question(null, 2, "Added");
+
+        QuestionChanges changes = questionRepository.applyChanges(
+                survey.getId(), 0L, List.of(kept, added)).orElseThrow();
+        entityManager.flush();
+        entityManager.clear();
+
+        // 第 2 题按 order 与原第 2 题匹配成修改，原第 3 题被删除
+        assertEquals(0, changes.getInserted());
+        assertEquals(1, changes.getUpdated());
+        assertEquals(1, changes.getDeleted());
+        List<QuestionDTO> after = questionRepository.findDetailsBySurveyId(survey.getId());
+        assertEquals(List.of(stored.get(0).getId(), stored.get(1).getId()),
+                after.stream().map(QuestionDTO::getId).toList());
+        assertEquals("Added", after.get(1).getDescription());
+    }
+
+    @Test
+    void applyChanges_ForeignIdIsInsertedAsNewQuestion() {
+        List<Question> incoming = List.of(
+                question(stored.get(0).getId(), 1, "First"),
+                question(stored.get(1).getId(), 2, "Second"),
+                question(stored.get(2).getId(), 3, "Third"),
+                question(999_999L, 4, "Fourth"));
+
+        QuestionChanges changes = questionRepository.applyChanges(survey.getId(), 0L, incoming).orElseThrow();
+
+        assertEquals(1, changes.getInserted());
+        assertEquals(0, changes.getUpdated());
+        assertEquals(0, changes.getDeleted());
+        assertNotEquals(999_999L, changes.getQuestions().get(3).getId());
+    }
+
+    @Test
+    void applyChanges_StaleVersionWritesNothing() {
+        Optional<QuestionChanges> changes = questionRepository.applyChanges(survey.getId(), 7L, List.of());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(changes.isEmpty());
+        assertEquals(3, questionRepository.findDetailsBySurveyId(survey.getId()).size());
+        assertEquals(Optional.of(0L), surveyRepository.findQuestionsVersionById(survey.getId()));
+    }
+
+    private Question question(Long id, int order, String description) {
+        Question question = new Question();
+        question.setId(id);
+        question.setType("single");
+        question.setQuestion_order(order);
+        question.setDescription(description);
+        question.setBody("A,B");
+        question.setSurvey(survey);
+        return question;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.form_flow_backend.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The schema comes from the Flyway migrations (Hibernate only validates it),
+ * so the indexes the hot queries rely on must exist after migrating.
+ */
+@DataJpaTest
+class SchemaMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrationsApplied() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE success = TRUE ORDER BY installed_rank",
+                String.class);
+
+        assertTrue(versions.containsAll(List.of("1", "2", "3", "4", "5", "6", "7")));
+    }
+
+    @Test
+    void hotQueryIndexesExist() {
+        assertIndex("takes", "idx_takes_survey_user");
+        assertIndex("access", "idx_access_user_survey");
+        assertIndex("access", "idx_access_survey_user");
+        assertIndex("questions", "idx_questions_survey_order");
+        assertIndex("sessions", "idx_sessions_expiration_date");
+        assertIndex("surveys", "idx_surveys_user_id_id");
+        assertIndex("surveys", "idx_surveys_is_public_id");
+        assertIndex("revoked_tokens", "idx_revoked_tokens_expiration_date");
+        assertIndex("take_answers", "idx_take_answers_survey_question_answer");
+    }
+
+    /**
+     * Existing databases are baselined at V1 and never run it, so anything added to V1
+     * after the fact would be missing there.
+     */
+    @Test
+    void baselineHasOnlyThePreFlywaySchema() throws IOException {
+        String baseline = new ClassPathResource("db/migration/V1__baseline_schema.sql")
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertFalse(baseline.contains("is_public"));
+        assertFalse(baseline.contains("questions_version"));
+        assertFalse(baseline.contains("revoked_tokens"));
+        assertFalse(baseline.contains("CREATE INDEX"));
+    }
+
+    private void assertIndex(String table, String index) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.indexes WHERE LOWER(table_name) = ? AND LOWER(index_name) = ?",
+                Integer.class, table, index);
+        assertEquals(1, count, index + " on " + table);
+    }
+}
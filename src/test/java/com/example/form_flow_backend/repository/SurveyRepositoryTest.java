@@ -0,0 +1,134 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.DTO.SurveySummary;
+import com.example.form_flow_backend.model.Access;
+import com.example.form_flow_backend.model.Survey;
+import com.example.form_flow_backend.model.User;
+import com.example.form_flow_backend.repository.Access.AccessRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class SurveyRepositoryTest {
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccessRepository accessRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User alice;
+    private Survey owned;
+    private Survey granted;
+    private Survey everyone;
+    private Survey ownedPublic;
+    private Survey hidden;
+
+    @BeforeEach
+    void setUp() {
+        alice = saveUser("alice");
+        User bob = saveUser("bob");
+        owned = saveSurvey("Alice owned", alice);
+        granted = saveSurvey("Granted by Bob", bob);
+        everyone = saveSurvey("Public 100%", bob);
+        everyone.setPublicSurvey(true);
+        everyone = surveyRepository.save(everyone);
+        ownedPublic = saveSurvey("Alice public", alice);
+        ownedPublic.setPublicSurvey(true);
+        ownedPublic = surveyRepository.save(ownedPublic);
+        hidden = saveSurvey("Hidden", bob);
+
+        grant(granted, alice);
+        // 自己的问卷同时也被授权，不应重复出现
+        grant(owned, alice);
+        // 公开问卷上遗留的授权记录不应让它出现在授权查询中
+        grant(everyone, alice);
+    }
+
+    @Test
+    void findGrantedPage_OnlyOtherUsersNonPublicGrants() {
+        List<SurveySummary> page = surveyRepository.findGrantedPage(alice.getId(), 0L, null, Limit.of(10));
+
+        // 自己的问卷和公开问卷上的授权记录都不算
+        assertEquals(List.of(granted.getId()), page.stream().map(SurveySummary::getId).toList());
+        assertEquals(1, surveyRepository.countGranted(alice.getId(), null));
+        assertEquals(1, surveyRepository.countOwnedPublic(alice.getId(), null));
+    }
+
+    @Test
+    void findGrantedPage_ContinuesAfterCursor() {
+        grant(hidden, alice);
+
+        List<SurveySummary> first = surveyRepository.findGrantedPage(alice.getId(), 0L, null, Limit.of(1));
+        List<SurveySummary> second = surveyRepository.findGrantedPage(
+                alice.getId(), first.get(0).getId(), null, Limit.of(1));
+
+        assertEquals(List.of(granted.getId()), first.stream().map(SurveySummary::getId).toList());
+        assertEquals(List.of(hidden.getId()), second.stream().map(SurveySummary::getId).toList());
+    }
+
+    @Test
+    void findGrantedPage_NameFilterTreatsWildcardsLiterally() {
+        grant(hidden, alice);
+        hidden.setSurveyName("Hidden 100%");
+        surveyRepository.save(hidden);
+
+        List<SurveySummary> page = surveyRepository.findGrantedPage(alice.getId(), 0L, "%100!%%", Limit.of(10));
+
+        assertEquals(List.of(hidden.getId()), page.stream().map(SurveySummary::getId).toList());
+        assertEquals(0, surveyRepository.countGranted(alice.getId(), "%1!%0%"));
+    }
+
+    @Test
+    void findPublicSummaries_ReturnsFlaggedSurveysInIdOrder() {
+        // 测试库在上下文之间共享，只看本测试创建的问卷
+        List<Long> ours = List.of(owned.getId(), granted.getId(), everyone.getId(), hidden.getId(), ownedPublic.getId());
+        assertEquals(List.of(everyone.getId(), ownedPublic.getId()),
+                surveyRepository.findPublicSummaries().stream().map(SurveySummary::getId).filter(ours::contains).toList());
+    }
+
+    @Test
+    void findOwnedPage_OnlyOwnSurveys() {
+        List<SurveySummary> page = surveyRepository.findOwnedPage(alice.getId(), 0L, null, Limit.of(10));
+
+        assertEquals(2, page.size());
+        assertEquals("Alice owned", page.get(0).getSurveyName());
+        assertEquals(1, surveyRepository.countOwned(alice.getId(), "%alice%"));
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("pass");
+        return userRepository.save(user);
+    }
+
+    private Survey saveSurvey(String name, User owner) {
+        Survey survey = new Survey();
+        survey.setSurveyName(name);
+        survey.setUser(owner);
+        return surveyRepository.save(survey);
+    }
+
+    private void grant(Survey survey, User user) {
+        Access access = new Access();
+        access.setSurvey(survey);
+        access.setUser(user);
+        accessRepository.save(access);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.form_flow_backend.repository;
+
+import com.example.form_flow_backend.DTO.AnswerCount;
+import com.example.form_flow_backend.model.Survey;
+import com.example.form_flow_backend.model.Takes;
+import com.example.form_flow_backend.model.User;
+import db.migration.V7__backfill_take_answers;
+import org.flywaydb.core.api.configuration.Configuration;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class TakeAnswerRepositoryTest {
+
+    @Autowired
+    private TakeAnswerRepository takeAnswerRepository;
+
+    @Autowired
+    private TakesRepository takesRepository;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private User taker;
+    private Survey survey;
+
+    @BeforeEach
+    void setUp() {
+        taker = new User();
+        taker.setUsername("take-answers-user");
+        taker.setEmail("take-answers-user@example.com");
+        taker.setPassword("pass");
+        taker = userRepository.save(taker);
+
+        survey = new Survey();
+        survey.setSurveyName("Normalized");
+        survey.setUser(taker);
+        survey = surveyRepository.saveAndFlush(survey);
+    }
+
+    @Test
+    void saveWithAnswers_WritesOneRowPerOption_CountedByGroupBy() {
+        takesRepository.saveWithAnswers(take("A,B;C"));
+        takesRepository.saveWithAnswers(take("A;;C,"));
+
+        assertEquals(List.of("1:A=2", "1:B=1", "2:=1", "2:C=1", "3:C=1"),
+                format(takeAnswerRepository.countAnswersBySurveyId(survey.getId())));
+    }
+
+    @Test
+    void countAnswers_KeepsCaseAndAccentVariantsApart() {
+        takesRepository.saveWithAnswers(take("Yes;\u00e9"));
+        takesRepository.saveWithAnswers(take("yes;e"));
+
+        assertEquals(4, takeAnswerRepository.countAnswersBySurveyId(survey.getId()).size());
+    }
+
+    @Test
+    void backfill_SplitsOldTakesInChunks_AndSkipsTakesAlreadySplit() throws Exception {
+        int oldTakes = V7__backfill_take_answers.CHUNK_SIZE * 2 + 500;
+        for (int i = 0; i < oldTakes; i++) {
+            takesRepository.save(take(i % 2 == 0 ? "A;X" : "B,C;X"));
+        }
+        takesRepository.saveWithAnswers(take("A;Y"));
+        takesRepository.flush();
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        new V7__backfill_take_answers().migrate(new Context() {
+            @Override
+            public Configuration getConfiguration() {
+                return null;
+            }
+
+            @Override
+            public Connection getConnection() {
+                return connection;
+            }
+        });
+
+        int half = oldTakes / 2;
+        assertEquals(List.of("1:A=" + (half + 1), "1:B=" + half, "1:C=" + half, "2:X=" + oldTakes, "2:Y=1"),
+                format(takeAnswerRepository.countAnswersBySurveyId(survey.getId())));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM takes t WHERE t.survey_id = ? "
+                + "AND NOT EXISTS (SELECT 1 FROM take_answers a WHERE a.take_id = t.id)", Integer.class, survey.getId()));
+    }
+
+    private Takes take(String answers) {
+        Takes take = new Takes();
+        take.setUser(taker);
+        take.setSurvey(survey);
+        take.setAnswers(answers);
+        return take;
+    }
+
+    private static List<String> format(List<AnswerCount> counts) {
+        return counts.stream()
+                .map(c -> c.getQuestionOrder() + ":" + c.getAnswer() + "=" + c.getCount())
+                .toList();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.form_flow_backend.security;
+
+import com.example.form_flow_backend.service.SessionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionTokenAuthenticationFilterTest {
+
+    @Mock
+    private SessionService sessionService;
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testValidHeader_PopulatesSecurityContext() throws Exception {
+        AuthenticatedUser user = new AuthenticatedUser(3L, "alice", "token");
+        when(sessionService.authenticate("token")).thenReturn(user);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/survey/getSurvey");
+        request.addHeader(AuthenticatedUserArgumentResolver.SESSION_TOKEN_HEADER, "token");
+        MockFilterChain chain = new MockFilterChain();
+
+        new SessionTokenAuthenticationFilter(sessionService).doFilter(request, new MockHttpServletResponse(), chain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertTrue(authentication.isAuthenticated());
+        assertSame(user, authentication.getPrincipal());
+        assertNotNull(chain.getRequest());
+        // 认证过程不创建 HttpSession
+        assertNull(request.getSession(false));
+    }
+
+    @Test
+    public void testOperatorUsername_GetsOperatorRole() throws Exception {
+        when(sessionService.authenticate("ops-token")).thenReturn(new AuthenticatedUser(1L, "ops", "ops-token"));
+        when(sessionService.authenticate("token")).thenReturn(new AuthenticatedUser(3L, "alice", "token"));
+        SessionTokenAuthenticationFilter filter = new SessionTokenAuthenticationFilter(sessionService, Set.of("ops"));
+
+        assertEquals(Set.of("ROLE_USER", "ROLE_OPERATOR"), authoritiesAfterFilter(filter, "ops-token"));
+        assertEquals(Set.of("ROLE_USER"), authoritiesAfterFilter(filter, "token"));
+    }
+
+    private static Set<String> authoritiesAfterFilter(SessionTokenAuthenticationFilter filter, String token)
+            throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/register/bulk");
+        request.addHeader(AuthenticatedUserArgumentResolver.SESSION_TOKEN_HEADER, token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return AuthorityUtils.authorityListToSet(SecurityContextHolder.getContext().getAuthentication().getAuthorities());
+    }
+
+    @Test
+    public void testInvalidHeader_LeavesRequestAnonymous() throws Exception {
+        when(sessionService.authenticate("bad"))
+                .thenThrow(new AuthenticationFailedException(HttpStatus.UNAUTHORIZED, "Unauthorized or session expired."));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/survey/getSurvey");
+        request.addHeader(AuthenticatedUserArgumentResolver.SESSION_TOKEN_HEADER, "bad");
+        MockFilterChain chain = new MockFilterChain();
+
+        new SessionTokenAuthenticationFilter(sessionService).doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    public void testInvalidHeader_ResolverReusesFailureWithoutSecondLookup() throws Exception {
+        AuthenticationFailedException failure =
+                new AuthenticationFailedException(HttpStatus.UNAUTHORIZED, "Unauthorized or session expired.");
+        when(sessionService.authenticate("bad")).thenThrow(failure);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/survey/getSurvey");
+        request.addHeader(AuthenticatedUserArgumentResolver.SESSION_TOKEN_HEADER, "bad");
+
+        new SessionTokenAuthenticationFilter(sessionService)
+                .doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        AuthenticatedUserArgumentResolver resolver = new AuthenticatedUserArgumentResolver(sessionService);
+
+        assertSame(failure, assertThrows(AuthenticationFailedException.class,
+                () -> resolver.resolveArgument(null, null, new ServletWebRequest(request), null)));
+        verify(sessionService, times(1)).authenticate("bad");
+    }
+
+    @Test
+    public void testNoHeader_SkipsAuthentication() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        new SessionTokenAuthenticationFilter(sessionService)
+                .doFilter(new MockHttpServletRequest("POST", "/survey/getSurvey"), new MockHttpServletResponse(), chain);
+
+        verifyNoInteractions(sessionService);
+        assertNotNull(chain.getRequest());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.form_flow_backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    public void testAllowsBurstThenRejects() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, Duration.ofSeconds(60), 100, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        long wait = limiter.tryAcquire("alice");
+
+        // 一个令牌每 20 秒补充一次
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(20));
+        // 其他 key 不受影响
+        assertEquals(0, limiter.tryAcquire("bob"));
+    }
+
+    @Test
+    public void testRefillsOverTime() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, Duration.ofSeconds(10), 100, clock::get);
+        limiter.tryAcquire("alice");
+        limiter.tryAcquire("alice");
+        assertTrue(limiter.tryAcquire("alice") > 0);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice") > 0);
+    }
+
+    @Test
+    public void testMemoryBounded() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, Duration.ofSeconds(10), 50, clock::get);
+        for (int i = 0; i < 1_000; i++) {
+            limiter.tryAcquire("user-" + i);
+        }
+        limiter.cleanUp();
+        assertTrue(limiter.estimatedSize() <= 50);
+    }
+
+    @Test
+    public void testConcurrentAttemptsNeverExceedCapacity() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(10, Duration.ofHours(1), 100, clock::get);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            pool.submit(() -> {
+                if (limiter.tryAcquire("victim") == 0) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(10, allowed.get());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.form_flow_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerHistogramTest {
+
+    @Test
+    void add_CountsOptionsPerQuestionInSortedOrder() {
+        AnswerHistogram histogram = new AnswerHistogram();
+        histogram.add("B;C,A");
+        histogram.add("A;C");
+        histogram.add(new StringBuilder("B;A;x"));
+
+        SortedMap<Integer, Map<String, Long>> counts = histogram.toCounts();
+
+        assertEquals("{1={A=1, B=2}, 2={A=2, C=2}, 3={x=1}}", counts.toString());
+    }
+
+    @Test
+    void add_GrowsPastManyOptionsAndQuestions() {
+        AnswerHistogram histogram = new AnswerHistogram();
+        Map<Integer, Map<String, Long>> expected = new TreeMap<>();
+        for (int i = 0; i < 5000; i++) {
+            String take = "o" + (i % 997) + ";q2;q3;q4;q5;q6;q7;q8;q9;o" + (i % 13);
+            histogram.add(take);
+            AnswerCounters.forEachAnswer(take, (questionOrder, answer) ->
+                    expected.computeIfAbsent(questionOrder, order -> new HashMap<>()).merge(answer, 1L, Long::sum));
+        }
+
+        assertEquals(expected, histogram.toCounts());
+        assertEquals(997, histogram.toCounts().get(1).size());
+    }
+
+    @Test
+    void merge_AddsCountsIncludingOptionsOnlyTheOtherHasSeen() {
+        AnswerHistogram first = new AnswerHistogram();
+        first.add("A;X");
+        AnswerHistogram second = new AnswerHistogram();
+        second.add("A;Y;Z");
+        second.add("B;X");
+
+        first.merge(second);
+
+        assertEquals("{1={A=2, B=1}, 2={X=2, Y=1}, 3={Z=1}}", first.toCounts().toString());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.form_flow_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerTokenizerTest {
+
+    @Test
+    void forEachOption_MatchesStringSplit() {
+        String[] inputs = {"", "A", "A;B", "A,B;C", "A;;B", ";A", "A;", "A;;", ";", ";;", ",", "A,,;B", ",A;B,",
+                "A,B,", ",,;,", "A;,;B", " a , b ; c ", "选项1,选项2;是"};
+        for (String input : inputs) {
+            assertEquals(split(input), scan(input), "answers \"" + input + "\"");
+        }
+    }
+
+    @Test
+    void forEachOption_ReportsRangesOfTheInput() {
+        StringBuilder answers = new StringBuilder("A,BC;D");
+        List<int[]> ranges = new ArrayList<>();
+        AnswerTokenizer.forEachOption(answers, (questionOrder, source, start, end) -> {
+            assertSame(answers, source);
+            ranges.add(new int[]{questionOrder, start, end});
+        });
+
+        assertEquals(3, ranges.size());
+        assertArrayEquals(new int[]{1, 0, 1}, ranges.get(0));
+        assertArrayEquals(new int[]{1, 2, 4}, ranges.get(1));
+        assertArrayEquals(new int[]{2, 5, 6}, ranges.get(2));
+    }
+
+    private static List<String> scan(String answers) {
+        List<String> options = new ArrayList<>();
+        AnswerTokenizer.forEachOption(answers, (questionOrder, source, start, end) ->
+                options.add(questionOrder + ":" + source.subSequence(start, end)));
+        return options;
+    }
+
+    // 改造前统计用的拆分方式
+    private static List<String> split(String answers) {
+        List<String> options = new ArrayList<>();
+        String[] perQuestion = answers.split(";");
+        for (int i = 0; i < perQuestion.length; i++) {
+            for (String answer : perQuestion[i].split(",")) {
+                options.add((i + 1) + ":" + answer);
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.model.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemorySessionStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Session session(String token, long expiresInMillis) {
+        Session session = new Session();
+        session.setSessionToken(token);
+        session.setUsername("user-" + token);
+        session.setExpirationDate(new Date(System.currentTimeMillis() + expiresInMillis));
+        return session;
+    }
+
+    @Test
+    public void testSaveFindDelete() {
+        InMemorySessionStore store = new InMemorySessionStore(tempDir.resolve("sessions.bin"));
+
+        Session saved = store.save(session("t1", 60_000));
+
+        assertNotNull(saved.getId());
+        assertSame(saved, store.findBySessionToken("t1").orElseThrow());
+        store.deleteBySessionToken("t1");
+        assertTrue(store.findBySessionToken("t1").isEmpty());
+    }
+
+    @Test
+    public void testExtendExpiration_OnlyMovesForward() {
+        InMemorySessionStore store = new InMemorySessionStore(tempDir.resolve("sessions.bin"));
+        Session shortLived = store.save(session("short", 1_000));
+        Session longLived = store.save(session("long", 3_600_000));
+        Date target = new Date(System.currentTimeMillis() + 60_000);
+
+        int updated = store.extendExpiration(List.of("short", "long", "missing"), target);
+
+        assertEquals(2, updated);
+        assertEquals(target, shortLived.getExpirationDate());
+        assertTrue(longLived.getExpirationDate().after(target));
+    }
+
+    @Test
+    public void testDeleteExpiredBatch_Bounded() {
+        InMemorySessionStore store = new InMemorySessionStore(tempDir.resolve("sessions.bin"));
+        for (int i = 0; i < 5; i++) {
+            store.save(session("expired-" + i, -1_000));
+        }
+        store.save(session("alive", 60_000));
+
+        assertEquals(3, store.deleteExpiredBatch(new Date(), 3));
+        assertEquals(2, store.deleteExpiredBatch(new Date(), 3));
+        assertEquals(0, store.deleteExpiredBatch(new Date(), 3));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testSnapshotReloadedOnRestart() {
+        Path snapshot = tempDir.resolve("sessions.bin");
+        InMemorySessionStore store = new InMemorySessionStore(snapshot);
+        store.save(session("keep", 60_000));
+        store.save(session("gone", -1_000));
+
+        store.destroy();
+        assertTrue(Files.exists(snapshot));
+
+        InMemorySessionStore restarted = new InMemorySessionStore(snapshot);
+        Session reloaded = restarted.findBySessionToken("keep").orElseThrow();
+        assertEquals("user-keep", reloaded.getUsername());
+        // 已过期的 session 不写入快照
+        assertTrue(restarted.findBySessionToken("gone").isEmpty());
+        assertEquals(1, restarted.size());
+    }
+
+    @Test
+    public void testSnapshotSkippedWhenUnchanged() throws Exception {
+        Path snapshot = tempDir.resolve("sessions.bin");
+        InMemorySessionStore store = new InMemorySessionStore(snapshot);
+        store.snapshot();
+        assertFalse(Files.exists(snapshot));
+
+        store.save(session("t1", 60_000));
+        store.snapshot();
+        assertTrue(Files.exists(snapshot));
+    }
+
+    @Test
+    public void testCorruptSnapshotIgnored() throws Exception {
+        Path snapshot = tempDir.resolve("sessions.bin");
+        Files.write(snapshot, new byte[]{0, 0, 0, 1, 1, 0});
+
+        InMemorySessionStore store = new InMemorySessionStore(snapshot);
+
+        assertEquals(0, store.size());
+    }
+}
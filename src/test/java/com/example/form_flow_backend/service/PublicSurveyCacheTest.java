@@ -0,0 +1,91 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.DTO.SurveySummary;
+import com.example.form_flow_backend.repository.SurveyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PublicSurveyCacheTest {
+
+    @Mock
+    private SurveyRepository surveyRepository;
+
+    private PublicSurveyCache publicSurveyCache;
+
+    @BeforeEach
+    void setUp() {
+        publicSurveyCache = new PublicSurveyCache(surveyRepository);
+    }
+
+    @Test
+    void reload_KeepsSurveysAddedWhileQuerying() {
+        when(surveyRepository.findPublicSummaries()).thenReturn(List.of(summary(1L, "Old")));
+        publicSurveyCache.reload();
+
+        // 查询进行中本节点创建了问卷 5，查询结果里没有它
+        when(surveyRepository.findPublicSummaries()).thenAnswer(invocation -> {
+            publicSurveyCache.add(5L, "Created meanwhile", null);
+            return List.of(summary(1L, "Old"));
+        });
+        publicSurveyCache.reload();
+
+        assertEquals(List.of(1L, 5L), ids(publicSurveyCache.page(0, null, 10)));
+    }
+
+    @Test
+    void reload_DropsSurveysNoLongerPublic() {
+        when(surveyRepository.findPublicSummaries()).thenReturn(List.of(summary(1L, "Old")));
+        publicSurveyCache.reload();
+        publicSurveyCache.add(5L, "Added before reload", null);
+
+        // 问卷 5 在下次查询前已不再公开
+        publicSurveyCache.reload();
+
+        assertEquals(List.of(1L), ids(publicSurveyCache.page(0, null, 10)));
+        assertEquals(1, publicSurveyCache.count(null));
+    }
+
+    @Test
+    void reload_FailedQueryKeepsCurrentSurveys() {
+        when(surveyRepository.findPublicSummaries()).thenReturn(List.of(summary(1L, "Old")));
+        publicSurveyCache.reload();
+
+        when(surveyRepository.findPublicSummaries()).thenThrow(new IllegalStateException("database down"));
+        assertThrows(IllegalStateException.class, publicSurveyCache::reload);
+        publicSurveyCache.add(5L, "Added after failure", null);
+
+        assertEquals(List.of(1L, 5L), ids(publicSurveyCache.page(0, null, 10)));
+    }
+
+    private static List<Long> ids(List<SurveySummary> page) {
+        return page.stream().map(SurveySummary::getId).toList();
+    }
+
+    private static SurveySummary summary(Long id, String name) {
+        return new SurveySummary() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getSurveyName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return null;
+            }
+        };
+    }
+}
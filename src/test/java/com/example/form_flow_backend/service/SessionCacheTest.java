@@ -0,0 +1,47 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.model.Session;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionCacheTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final SessionCache sessionCache = new SessionCache(100, Duration.ofSeconds(30), clock::get);
+
+    @Test
+    public void testEntryExpiresAfterTtl() {
+        sessionCache.put(session("token"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        assertNotNull(sessionCache.get("token", token -> null));
+
+        // 其他节点注销后，本节点最多在 TTL 内继续命中缓存
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertNull(sessionCache.get("token", token -> null));
+    }
+
+    @Test
+    public void testExtendDoesNotRestartTtl() {
+        sessionCache.put(session("token"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        sessionCache.extend("token", new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(2)));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        assertNull(sessionCache.get("token", token -> null));
+    }
+
+    private static Session session(String sessionToken) {
+        Session session = new Session();
+        session.setSessionToken(sessionToken);
+        session.setExpirationDate(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+        return session;
+    }
+}
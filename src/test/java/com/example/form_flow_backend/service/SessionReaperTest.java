@@ -0,0 +1,72 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionReaperTest {
+
+    @Mock
+    private SessionStore sessionStore;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private SessionTouchTracker sessionTouchTracker;
+
+    private SessionReaper sessionReaper;
+
+    @BeforeEach
+    public void setUp() {
+        sessionReaper = new SessionReaper(sessionStore, revokedTokenRepository, sessionTouchTracker, 3);
+    }
+
+    @Test
+    public void testPurgeExpiredSessions_DeletesInBatches() {
+        Date now = new Date();
+        when(sessionStore.deleteExpiredBatch(now, 3)).thenReturn(3, 3, 1);
+
+        long purged = sessionReaper.purgeExpiredSessions(now);
+
+        assertEquals(7, purged);
+        // 最后一批不足 batch-size，不再多删一次
+        verify(sessionStore, times(3)).deleteExpiredBatch(now, 3);
+    }
+
+    @Test
+    public void testPurgeExpiredSessions_NothingExpired() {
+        Date now = new Date();
+        when(sessionStore.deleteExpiredBatch(now, 3)).thenReturn(0);
+
+        assertEquals(0, sessionReaper.purgeExpiredSessions(now));
+        verify(sessionStore, times(1)).deleteExpiredBatch(now, 3);
+    }
+
+    @Test
+    public void testReap_FlushesTouchesThenPurges() {
+        when(sessionStore.deleteExpiredBatch(any(Date.class), eq(3))).thenReturn(1);
+        when(revokedTokenRepository.findExpiredIds(any(Date.class), any())).thenReturn(List.of(9L));
+
+        sessionReaper.reap();
+
+        // 先写回访问记录，再删除过期行
+        InOrder inOrder = inOrder(sessionTouchTracker, sessionStore);
+        inOrder.verify(sessionTouchTracker).flush();
+        inOrder.verify(sessionStore).deleteExpiredBatch(any(Date.class), eq(3));
+        verify(revokedTokenRepository).deleteAllByIdInBatch(List.of(9L));
+    }
+}
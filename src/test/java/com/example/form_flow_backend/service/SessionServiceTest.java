@@ -1,35 +1,86 @@
 package com.example.form_flow_backend.service;
 
+import com.example.form_flow_backend.model.RevokedToken;
 import com.example.form_flow_backend.model.Session;
-import com.example.form_flow_backend.repository.SessionRepository;
+import com.example.form_flow_backend.model.User;
+import com.example.form_flow_backend.repository.RevokedTokenRepository;
+import com.example.form_flow_backend.repository.UserRepository;
+import com.example.form_flow_backend.security.AuthenticatedUser;
+import com.example.form_flow_backend.security.AuthenticationFailedException;
+import com.example.form_flow_backend.security.SessionTokenCodec;
+import com.example.form_flow_backend.security.TokenRevocationList;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class SessionServiceTest {
 
-    @InjectMocks
     private SessionService sessionService;
 
+    private SessionCache sessionCache;
+
+    private SessionTouchTracker sessionTouchTracker;
+
+    @Mock
+    private SessionStore sessionStore;
+
     @Mock
-    private SessionRepository sessionRepository;
+    private UserRepository userRepository;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    @BeforeEach
+    public void setUp() {
+        sessionCache = new SessionCache(100, Duration.ofMinutes(5));
+        sessionTouchTracker = new SessionTouchTracker(sessionStore, sessionCache,
+                true, Duration.ofHours(24), Duration.ofMinutes(5));
+        SessionTokenCodec codec = new SessionTokenCodec(SessionTokenCodec.MODE_OPAQUE, "");
+        sessionService = new SessionService(sessionStore, sessionCache, userRepository,
+                codec, new TokenRevocationList(revokedTokenRepository, codec), sessionTouchTracker);
+    }
+
+    private SessionService signedSessionService(TokenRevocationList[] revocationListOut) {
+        SessionTokenCodec codec = new SessionTokenCodec(SessionTokenCodec.MODE_SIGNED, SECRET);
+        TokenRevocationList revocationList = new TokenRevocationList(revokedTokenRepository, codec);
+        if (revocationListOut != null) {
+            revocationListOut[0] = revocationList;
+        }
+        return new SessionService(sessionStore, sessionCache, userRepository,
+                codec, revocationList, sessionTouchTracker);
+    }
+
+    private void stubUser(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+    }
 
     @Test
     public void testCreateSession() {
         String username = "testUser";
 
         // Stub the repository.save method to return the session passed to it.
-        when(sessionRepository.save(any(Session.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(sessionStore.save(any(Session.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         Session session = sessionService.createSession(username);
 
@@ -40,14 +91,14 @@ public class SessionServiceTest {
         // Check that the expiration date is in the future.
         assertTrue(session.getExpirationDate().after(new Date()));
 
-        verify(sessionRepository, times(1)).save(any(Session.class));
+        verify(sessionStore, times(1)).save(any(Session.class));
     }
 
     @Test
     public void testDeleteSession() {
         String token = "some-token";
         sessionService.deleteSession(token);
-        verify(sessionRepository, times(1)).deleteBySessionToken(token);
+        verify(sessionStore, times(1)).deleteBySessionToken(token);
     }
 
     @Test
@@ -58,7 +109,7 @@ public class SessionServiceTest {
         session.setUsername("testUser");
         session.setExpirationDate(new Date(System.currentTimeMillis() + 10000)); // Expires in 10 seconds
 
-        when(sessionRepository.findBySessionToken(token)).thenReturn(Optional.of(session));
+        when(sessionStore.findBySessionToken(token)).thenReturn(Optional.of(session));
 
         Session found = sessionService.getSession(token);
         assertNotNull(found);
@@ -69,7 +120,7 @@ public class SessionServiceTest {
     @Test
     public void testGetSession_NotFound() {
         String token = "nonexistent-token";
-        when(sessionRepository.findBySessionToken(token)).thenReturn(Optional.empty());
+        when(sessionStore.findBySessionToken(token)).thenReturn(Optional.empty());
 
         Session found = sessionService.getSession(token);
         assertNull(found);
@@ -84,7 +135,7 @@ public class SessionServiceTest {
         session.setUsername("testUser");
         session.setExpirationDate(new Date(System.currentTimeMillis() + 10000)); // Expires in 10 seconds
 
-        when(sessionRepository.findBySessionToken(token)).thenReturn(Optional.of(session));
+        when(sessionStore.findBySessionToken(token)).thenReturn(Optional.of(session));
 
         boolean valid = sessionService.verifySession(token);
         assertTrue(valid);
@@ -99,7 +150,7 @@ public class SessionServiceTest {
         session.setUsername("testUser");
         session.setExpirationDate(new Date(System.currentTimeMillis() - 10000)); // Expired 10 seconds ago
 
-        when(sessionRepository.findBySessionToken(token)).thenReturn(Optional.of(session));
+        when(sessionStore.findBySessionToken(token)).thenReturn(Optional.of(session));
 
         boolean valid = sessionService.verifySession(token);
         assertFalse(valid);
@@ -108,9 +159,280 @@ public class SessionServiceTest {
     @Test
     public void testVerifySession_NotFound() {
         String token = "nonexistent-token";
-        when(sessionRepository.findBySessionToken(token)).thenReturn(Optional.empty());
+        when(sessionStore.findBySessionToken(token)).thenReturn(Optional.empty());
 
         boolean valid = sessionService.verifySession(token);
         assertFalse(valid);
     }
+
+    @Test
+    public void testGetSession_CachedAfterFirstLookup() {
+        String token = "cached-token";
+        Session session = new Session();
+        session.setSessionToken(token);
+        session.setUsername("testUser");
+        session.setExpirationDate(new Date(System.currentTimeMillis() + 10000));
+
+        when(sessionStore.findBySessionToken(token)).thenReturn(Optional.of(session));
+
+        // verifySession + getSession for the same token only hit the repository once
+        assertTrue(sessionService.verifySession(token));
+        assertSame(session, sessionService.getSession(token));
+
+        verify(sessionStore, times(1)).findBySessionToken(token);
+        assertEquals(1, sessionCache.stats().hitCount());
+        assertEquals(1, sessionCache.stats().missCount());
+    }
+
+    @Test
+    public void testCreateSession_PopulatesCache() {
+        when(sessionStore.save(any(Session.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Session session = sessionService.createSession("testUser");
+
+        assertTrue(sessionService.verifySession(session.getSessionToken()));
+        verify(sessionStore, never()).findBySessionToken(anyString());
+    }
+
+    @Test
+    public void testDeleteSession_InvalidatesCache() {
+        String token = "logout-token";
+        Session session = new Session();
+        session.setSessionToken(token);
+        session.setUsername("testUser");
+        session.setExpirationDate(new Date(System.currentTimeMillis() + 10000));
+
+        when(sessionStore.findBySessionToken(token))
+                .thenReturn(Optional.of(session))
+                .thenReturn(Optional.empty());
+
+        assertTrue(sessionService.verifySession(token));
+        sessionService.deleteSession(token);
+
+        // 登出后不能再命中缓存
+        assertFalse(sessionService.verifySession(token));
+        verify(sessionStore, times(2)).findBySessionToken(token);
+    }
+
+    @Test
+    public void testGetSession_NullToken() {
+        assertNull(sessionService.getSession(null));
+        assertFalse(sessionService.verifySession(null));
+        verify(sessionStore, never()).findBySessionToken(any());
+    }
+
+    @Test
+    public void testAuthenticate_MissingToken() {
+        AuthenticationFailedException e = assertThrows(AuthenticationFailedException.class,
+                () -> sessionService.authenticate(null));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        assertEquals("Session token is missing.", e.getMessage());
+    }
+
+    @Test
+    public void testAuthenticate_UnknownToken() {
+        when(sessionStore.findBySessionToken("unknown-token")).thenReturn(Optional.empty());
+
+        AuthenticationFailedException e = assertThrows(AuthenticationFailedException.class,
+                () -> sessionService.authenticate("unknown-token"));
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatus());
+        assertEquals("Unauthorized or session expired.", e.getMessage());
+    }
+
+    @Test
+    public void testAuthenticate_ExpiredSession() {
+        Session session = new Session();
+        session.setSessionToken("expired-token");
+        session.setUsername("testUser");
+        session.setExpirationDate(new Date(System.currentTimeMillis() - 10000));
+        when(sessionStore.findBySessionToken("expired-token")).thenReturn(Optional.of(session));
+
+        AuthenticationFailedException e = assertThrows(AuthenticationFailedException.class,
+                () -> sessionService.authenticate("expired-token"));
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatus());
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    public void testAuthenticate_UserNotFound() {
+        Session session = new Session();
+        session.setSessionToken("orphan-token");
+        session.setUsername("missingUser");
+        session.setExpirationDate(new Date(System.currentTimeMillis() + 10000));
+        when(sessionStore.findBySessionToken("orphan-token")).thenReturn(Optional.of(session));
+        when(userRepository.findByUsername("missingUser")).thenReturn(Optional.empty());
+
+        AuthenticationFailedException e = assertThrows(AuthenticationFailedException.class,
+                () -> sessionService.authenticate("orphan-token"));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        assertEquals("User not found in database.", e.getMessage());
+    }
+
+    @Test
+    public void testAuthenticate_Success() {
+        Session session = new Session();
+        session.setSessionToken("valid-token");
+        session.setUsername("testUser");
+        session.setExpirationDate(new Date(System.currentTimeMillis() + 10000));
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("testUser");
+        when(sessionStore.findBySessionToken("valid-token")).thenReturn(Optional.of(session));
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(user));
+
+        AuthenticatedUser authenticatedUser = sessionService.authenticate("valid-token");
+
+        assertEquals(42L, authenticatedUser.getId());
+        assertEquals("testUser", authenticatedUser.getUsername());
+        assertEquals("valid-token", authenticatedUser.getSessionToken());
+    }
+
+    @Test
+    public void testSignedMode_CreateAndAuthenticateWithoutSessionTable() {
+        SessionService signed = signedSessionService(null);
+        stubUser(42L, "signedUser");
+
+        Session session = signed.createSession("signedUser");
+        AuthenticatedUser user = signed.authenticate(session.getSessionToken());
+
+        assertEquals(42L, user.getId());
+        assertEquals("signedUser", user.getUsername());
+        assertTrue(signed.verifySession(session.getSessionToken()));
+        // 登录时查一次 user，之后校验不再访问数据库
+        verify(userRepository, times(1)).findByUsername("signedUser");
+        verifyNoInteractions(sessionStore);
+    }
+
+    @Test
+    public void testSignedMode_TamperedTokenRejected() {
+        SessionService signed = signedSessionService(null);
+        stubUser(42L, "signedUser");
+        String token = signed.createSession("signedUser").getSessionToken();
+
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("forged|1|" + Long.MAX_VALUE + "|admin").getBytes());
+        String forged = forgedPayload + token.substring(token.indexOf('.'));
+
+        AuthenticationFailedException e = assertThrows(AuthenticationFailedException.class,
+                () -> signed.authenticate(forged));
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatus());
+        assertFalse(signed.verifySession("not-base64!.also-not"));
+    }
+
+    @Test
+    public void testSignedMode_LogoutRevokesToken() {
+        TokenRevocationList[] revocationList = new TokenRevocationList[1];
+        SessionService signed = signedSessionService(revocationList);
+        stubUser(42L, "signedUser");
+        String token = signed.createSession("signedUser").getSessionToken();
+
+        signed.deleteSession(token);
+
+        verify(revokedTokenRepository, times(1)).save(any(RevokedToken.class));
+        assertThrows(AuthenticationFailedException.class, () -> signed.authenticate(token));
+        assertEquals(1, revocationList[0].size());
+    }
+
+    @Test
+    public void testSignedMode_SecondLogoutIsNoOp() {
+        SessionService signed = signedSessionService(null);
+        stubUser(42L, "signedUser");
+        String token = signed.createSession("signedUser").getSessionToken();
+
+        signed.deleteSession(token);
+        signed.deleteSession(token);
+
+        verify(revokedTokenRepository, times(1)).save(any(RevokedToken.class));
+    }
+
+    @Test
+    public void testSignedMode_LogoutAlreadyRecordedByAnotherNode() {
+        TokenRevocationList[] revocationList = new TokenRevocationList[1];
+        SessionService signed = signedSessionService(revocationList);
+        stubUser(42L, "signedUser");
+        String token = signed.createSession("signedUser").getSessionToken();
+        // 另一节点已登出同一 token，本节点尚未同步：token_id 唯一约束冲突
+        when(revokedTokenRepository.save(any(RevokedToken.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry for uk_revoked_tokens_token_id"));
+
+        assertDoesNotThrow(() -> signed.deleteSession(token));
+
+        assertThrows(AuthenticationFailedException.class, () -> signed.authenticate(token));
+        assertEquals(1, revocationList[0].size());
+    }
+
+    @Test
+    public void testSignedMode_RevocationsRebuiltFromDatabase() {
+        TokenRevocationList[] revocationList = new TokenRevocationList[1];
+        SessionService signed = signedSessionService(revocationList);
+        stubUser(42L, "signedUser");
+        String token = signed.createSession("signedUser").getSessionToken();
+        assertNotNull(signed.authenticate(token));
+
+        // 另一节点登出：该 token 出现在 revoked_tokens 表中
+        String tokenId = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))))
+                .split("\\|")[0];
+        RevokedToken revoked = new RevokedToken();
+        revoked.setTokenId(tokenId);
+        revoked.setExpirationDate(new Date(System.currentTimeMillis() + 60_000));
+        when(revokedTokenRepository.findByExpirationDateAfter(any(Date.class))).thenReturn(List.of(revoked));
+
+        revocationList[0].rebuild();
+
+        assertThrows(AuthenticationFailedException.class, () -> signed.authenticate(token));
+    }
+
+    @Test
+    public void testSignedMode_OpaqueTokensStillAccepted() {
+        SessionService signed = signedSessionService(null);
+        String token = "legacy-uuid-token";
+        Session session = new Session();
+        session.setSessionToken(token);
+        session.setUsername("legacyUser");
+        session.setExpirationDate(new Date(System.currentTimeMillis() + 10000));
+        when(sessionStore.findBySessionToken(token)).thenReturn(Optional.of(session));
+        stubUser(5L, "legacyUser");
+
+        assertEquals(5L, signed.authenticate(token).getId());
+    }
+
+    @Test
+    public void testSignedMode_RequiresSecret() {
+        assertThrows(IllegalStateException.class,
+                () -> new SessionTokenCodec(SessionTokenCodec.MODE_SIGNED, ""));
+    }
+
+    @Test
+    public void testAuthenticate_SlidesExpiration() {
+        String token = "sliding-token";
+        Session session = new Session();
+        session.setSessionToken(token);
+        session.setUsername("testUser");
+        session.setExpirationDate(new Date(System.currentTimeMillis() + 10000));
+        when(sessionStore.findBySessionToken(token)).thenReturn(Optional.of(session));
+        stubUser(1L, "testUser");
+
+        sessionService.authenticate(token);
+
+        // 尚未写回数据库，但 verifySession 已考虑内存中的访问时间
+        session.setExpirationDate(new Date(System.currentTimeMillis() - 1000));
+        assertTrue(sessionService.verifySession(token));
+        verify(sessionStore, never()).extendExpiration(any(), any());
+    }
+
+    @Test
+    public void testDeleteSession_ForgetsPendingTouch() {
+        String token = "touched-token";
+        Session session = new Session();
+        session.setSessionToken(token);
+        session.setUsername("testUser");
+        session.setExpirationDate(new Date(System.currentTimeMillis() + 10000));
+        when(sessionStore.findBySessionToken(token)).thenReturn(Optional.of(session));
+        stubUser(1L, "testUser");
+
+        sessionService.authenticate(token);
+        sessionService.deleteSession(token);
+
+        assertEquals(0, sessionTouchTracker.flush());
+    }
 }
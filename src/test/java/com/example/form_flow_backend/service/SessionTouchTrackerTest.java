@@ -0,0 +1,116 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.model.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionTouchTrackerTest {
+
+    private static final Duration WINDOW = Duration.ofHours(24);
+    private static final Duration WRITE_INTERVAL = Duration.ofMinutes(5);
+
+    @Mock
+    private SessionStore sessionStore;
+
+    private SessionCache sessionCache;
+
+    private SessionTouchTracker tracker;
+
+    @BeforeEach
+    public void setUp() {
+        sessionCache = new SessionCache(100, Duration.ofMinutes(5));
+        tracker = new SessionTouchTracker(sessionStore, sessionCache, true, WINDOW, WRITE_INTERVAL);
+    }
+
+    private Session session(String token, long expiresInMillis) {
+        Session session = new Session();
+        session.setSessionToken(token);
+        session.setUsername("testUser");
+        session.setExpirationDate(new Date(System.currentTimeMillis() + expiresInMillis));
+        return session;
+    }
+
+    @Test
+    public void testTouch_FreshSessionNotWritten() {
+        // 刚创建的 session 过期时间已经是 now + window，无需写回
+        Session session = session("fresh", WINDOW.toMillis());
+
+        tracker.touch(session);
+
+        assertEquals(0, tracker.flush());
+        verifyNoInteractions(sessionStore);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlush_CoalescesTouchesIntoOneUpdate() {
+        Session a = session("a", 1000);
+        Session b = session("b", 1000);
+
+        // 同一 session 多次访问只写一次，同一时间片内的 session 合并为一条 UPDATE
+        tracker.touch(a);
+        tracker.touch(a);
+        tracker.touch(b);
+        long before = System.currentTimeMillis();
+        int written = tracker.flush();
+
+        assertEquals(2, written);
+        ArgumentCaptor<Collection<String>> tokens = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Date> expiration = ArgumentCaptor.forClass(Date.class);
+        verify(sessionStore, atMost(2)).extendExpiration(tokens.capture(), expiration.capture());
+        assertEquals(2, tokens.getAllValues().stream().mapToInt(Collection::size).sum());
+        for (Date date : expiration.getAllValues()) {
+            assertTrue(date.getTime() > before + WINDOW.toMillis() - WRITE_INTERVAL.toMillis() - 1000);
+            assertEquals(0, date.getTime() % WRITE_INTERVAL.toMillis());
+        }
+
+        // 写回后清空，下一轮无需再写
+        assertEquals(0, tracker.flush());
+    }
+
+    @Test
+    public void testFlush_UpdatesCachedSession() {
+        Session session = session("cached", 1000);
+        sessionCache.put(session);
+
+        tracker.touch(session);
+        tracker.flush();
+
+        assertTrue(session.getExpirationDate().getTime() > System.currentTimeMillis() + WINDOW.toMillis() / 2);
+        verify(sessionStore).extendExpiration(any(), any());
+    }
+
+    @Test
+    public void testEffectiveExpiration_UsesPendingTouch() {
+        Session session = session("pending", 1000);
+        Date stored = session.getExpirationDate();
+
+        assertEquals(stored, tracker.effectiveExpiration(session));
+        tracker.touch(session);
+        assertTrue(tracker.effectiveExpiration(session).after(stored));
+    }
+
+    @Test
+    public void testDisabled_NoSliding() {
+        tracker = new SessionTouchTracker(sessionStore, sessionCache, false, WINDOW, WRITE_INTERVAL);
+        Session session = session("disabled", 1000);
+
+        tracker.touch(session);
+
+        assertEquals(session.getExpirationDate(), tracker.effectiveExpiration(session));
+        assertEquals(0, tracker.flush());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.model.Access;
+import com.example.form_flow_backend.model.Survey;
+import com.example.form_flow_backend.model.User;
+import com.example.form_flow_backend.repository.SurveyRepository;
+import com.example.form_flow_backend.repository.UserRepository;
+import com.example.form_flow_backend.repository.Access.AccessRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(SurveyAccessIndex.class)
+class SurveyAccessIndexTest {
+
+    @Autowired
+    private SurveyAccessIndex surveyAccessIndex;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccessRepository accessRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User owner;
+    private User reader;
+    private User stranger;
+
+    @BeforeEach
+    void setUp() {
+        owner = saveUser("acl-owner");
+        reader = saveUser("acl-reader");
+        stranger = saveUser("acl-stranger");
+    }
+
+    @Test
+    void rebuild_IndexesOwnersGrantsAndPublicSurveys() {
+        Survey granted = saveSurvey("granted", owner, false);
+        Survey everyone = saveSurvey("everyone", owner, true);
+        grant(granted, reader);
+        entityManager.flush();
+
+        surveyAccessIndex.rebuild();
+
+        assertTrue(surveyAccessIndex.find(granted.getId()).allows(owner.getId()));
+        assertTrue(surveyAccessIndex.find(granted.getId()).allows(reader.getId()));
+        assertFalse(surveyAccessIndex.find(granted.getId()).allows(stranger.getId()));
+        assertTrue(surveyAccessIndex.find(everyone.getId()).allows(stranger.getId()));
+    }
+
+    @Test
+    void find_LoadsSurveyCreatedAfterRebuild() {
+        surveyAccessIndex.rebuild();
+        Survey later = saveSurvey("later", owner, false);
+        grant(later, reader);
+        entityManager.flush();
+
+        SurveyAccessIndex.SurveyAcl acl = surveyAccessIndex.find(later.getId());
+        assertNotNull(acl);
+        assertTrue(acl.allows(owner.getId()));
+        assertTrue(acl.allows(reader.getId()));
+        assertFalse(acl.allows(stranger.getId()));
+        assertNull(surveyAccessIndex.find(Integer.MAX_VALUE));
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("pass");
+        return userRepository.save(user);
+    }
+
+    private Survey saveSurvey(String name, User user, boolean publicSurvey) {
+        Survey survey = new Survey();
+        survey.setSurveyName(name);
+        survey.setUser(user);
+        survey.setPublicSurvey(publicSurvey);
+        return surveyRepository.save(survey);
+    }
+
+    private void grant(Survey survey, User user) {
+        Access access = new Access();
+        access.setSurvey(survey);
+        access.setUser(user);
+        accessRepository.save(access);
+    }
+}
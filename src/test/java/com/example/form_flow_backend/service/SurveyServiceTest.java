@@ -2,19 +2,33 @@ package com.example.form_flow_backend.service;
 
 import com.example.form_flow_backend.DTO.CreateSurveyRequest;
 import com.example.form_flow_backend.DTO.GetSurveyDetailRequest;
+import com.example.form_flow_backend.DTO.QuestionChanges;
+import com.example.form_flow_backend.DTO.QuestionDTO;
+import com.example.form_flow_backend.DTO.SurveyPageRequest;
+import com.example.form_flow_backend.DTO.SurveySummary;
 import com.example.form_flow_backend.DTO.UpdateQuestionsRequest;
 import com.example.form_flow_backend.model.*;
 import com.example.form_flow_backend.repository.*;
 import com.example.form_flow_backend.repository.Access.AccessRepository;
+import com.example.form_flow_backend.security.AuthenticatedUser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
 
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
 import java.util.*;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,26 +43,35 @@ class SurveyServiceTest {
     @Mock
     private QuestionRepository questionRepository;
     @Mock
-    private SessionRepository sessionRepository;
-    @Mock
-    private SessionService sessionService;
-    @Mock
     private AccessRepository accessRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
 
-    @InjectMocks
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SurveyDetailCache surveyDetailCache;
+    private PublicSurveyCache publicSurveyCache;
+    private SurveyAccessIndex surveyAccessIndex;
     private SurveyService surveyService;
 
-    private Session mockSession;
+    private AuthenticatedUser authenticatedUser;
     private User mockUser;
     private Survey mockSurvey;
 
     @BeforeEach
     void setUp() {
+        surveyDetailCache = new SurveyDetailCache(DataSize.ofMegabytes(1), Duration.ofMinutes(10));
+        publicSurveyCache = new PublicSurveyCache(surveyRepository);
+        surveyAccessIndex = new SurveyAccessIndex(jdbcTemplate);
+        surveyService = new SurveyService(userRepository, surveyRepository, questionRepository,
+                accessRepository, surveyDetailCache, publicSurveyCache, surveyAccessIndex, objectMapper, true, 50, 200);
+        // 问卷 1 属于当前用户；其他问卷 id 在索引中不存在（模拟的 JdbcTemplate 查不到）
+        surveyAccessIndex.add(1L, 7L, false, List.of());
+
         // 基础模拟数据
-        mockSession = new Session();
-        mockSession.setUsername("testUser");
+        authenticatedUser = new AuthenticatedUser(7L, "testUser", "validToken");
 
         mockUser = new User();
+        mockUser.setId(7L);
         mockUser.setUsername("testUser");
         mockUser.setEmail("testUser@example.com");
         mockUser.setPassword("pass123");
@@ -63,53 +86,6 @@ class SurveyServiceTest {
     // ---------------------------
     // 1) createSurvey 测试
     // ---------------------------
-    @Test
-    void createSurvey_MissingSessionToken() {
-        CreateSurveyRequest request = new CreateSurveyRequest();
-        request.setSurveyName("My First Survey");
-        request.setDescription("Just a test.");
-        request.setAccessControl("-1");
-
-        // 未设置 sessionToken
-        ResponseEntity<Map<String, Object>> response = surveyService.createSurvey(request);
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertEquals(false, response.getBody().get("success"));
-        assertEquals("Session token is missing.", response.getBody().get("message"));
-    }
-
-    @Test
-    void createSurvey_SessionNotFound() {
-        CreateSurveyRequest request = new CreateSurveyRequest();
-        request.setSessionToken("invalidToken");
-        request.setSurveyName("SurveyName");
-        request.setDescription("desc");
-        request.setAccessControl("-1");
-
-        when(sessionRepository.findBySessionToken("invalidToken")).thenReturn(Optional.empty());
-
-        ResponseEntity<Map<String, Object>> response = surveyService.createSurvey(request);
-        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
-        assertEquals(false, response.getBody().get("success"));
-        assertEquals("Unauthorized or session expired.", response.getBody().get("message"));
-    }
-
-    @Test
-    void createSurvey_UserNotFound() {
-        CreateSurveyRequest request = new CreateSurveyRequest();
-        request.setSessionToken("validToken");
-        request.setSurveyName("SurveyName");
-        request.setDescription("desc");
-        request.setAccessControl("-1");
-
-        when(sessionRepository.findBySessionToken("validToken")).thenReturn(Optional.of(mockSession));
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.empty());
-
-        ResponseEntity<Map<String, Object>> response = surveyService.createSurvey(request);
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertEquals(false, response.getBody().get("success"));
-        assertEquals("User not found in database.", response.getBody().get("message"));
-    }
-
     @Test
     void createSurvey_MissingSurveyName() {
         CreateSurveyRequest request = new CreateSurveyRequest();
@@ -118,13 +94,11 @@ class SurveyServiceTest {
         request.setDescription("desc");
         request.setAccessControl("-1");
 
-        when(sessionRepository.findBySessionToken("validToken")).thenReturn(Optional.of(mockSession));
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(mockUser));
-
-        ResponseEntity<Map<String, Object>> response = surveyService.createSurvey(request);
+        ResponseEntity<Map<String, Object>> response = surveyService.createSurvey(request, authenticatedUser);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals(false, response.getBody().get("success"));
         assertEquals("Survey name is required.", response.getBody().get("message"));
+        verify(surveyRepository, never()).save(any(Survey.class));
     }
 
     @Test
@@ -136,23 +110,27 @@ class SurveyServiceTest {
         // 测试 -1 访问场景
         request.setAccessControl("-1");
 
-        when(sessionRepository.findBySessionToken("validToken")).thenReturn(Optional.of(mockSession));
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(mockUser));
+        when(userRepository.getReferenceById(7L)).thenReturn(mockUser);
         when(surveyRepository.save(any(Survey.class))).thenAnswer(inv -> {
             Survey s = inv.getArgument(0);
             s.setId(100L);
             return s;
         });
 
-        ResponseEntity<Map<String, Object>> response = surveyService.createSurvey(request);
+        ResponseEntity<Map<String, Object>> response = surveyService.createSurvey(request, authenticatedUser);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(true, response.getBody().get("success"));
         assertEquals("Survey created successfully.", response.getBody().get("message"));
         assertEquals(100L, response.getBody().get("surveyId"));
 
-        // 确认saveAll被调用
-        verify(accessRepository, times(1)).saveAll(anyList());
+        // 公开问卷只设置标记并进入公开缓存，不写 access，也没有再按 username 查询创建者
+        ArgumentCaptor<Survey> saved = ArgumentCaptor.forClass(Survey.class);
+        verify(surveyRepository).save(saved.capture());
+        assertTrue(saved.getValue().isPublicSurvey());
+        verifyNoInteractions(accessRepository);
+        verify(userRepository, never()).findByUsername(anyString());
+        assertEquals(1, publicSurveyCache.count(null));
     }
 
     @Test
@@ -164,140 +142,93 @@ class SurveyServiceTest {
         // 测试普通用户访问
         request.setAccessControl("alice,bob");
 
-        User alice = new User();
-        alice.setUsername("alice");
-        alice.setEmail("alice@example.com");
-        alice.setPassword("passA");
-
-        User bob = new User();
-        bob.setUsername("bob");
-        bob.setEmail("bob@example.com");
-        bob.setPassword("passB");
-
-        when(sessionRepository.findBySessionToken("validToken")).thenReturn(Optional.of(mockSession));
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(mockUser));
+        when(userRepository.getReferenceById(7L)).thenReturn(mockUser);
         when(surveyRepository.save(any(Survey.class))).thenAnswer(inv -> {
             Survey s = inv.getArgument(0);
             s.setId(101L);
             return s;
         });
-        when(userRepository.findByUsernameIn(anyList())).thenReturn(Arrays.asList(alice, bob));
+        when(userRepository.findIdsByUsernameIn(anyList())).thenReturn(Arrays.asList(21L, 22L));
 
-        ResponseEntity<Map<String, Object>> response = surveyService.createSurvey(request);
+        ResponseEntity<Map<String, Object>> response = surveyService.createSurvey(request, authenticatedUser);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(true, response.getBody().get("success"));
         assertEquals("Survey created successfully.", response.getBody().get("message"));
         assertEquals(101L, response.getBody().get("surveyId"));
 
-        verify(accessRepository, times(1)).saveAll(anyList());
+        verify(accessRepository, times(1)).batchInsert(101L, Arrays.asList(21L, 22L));
+        // 新问卷立即进入 ACL 索引
+        assertTrue(surveyAccessIndex.find(101L).allows(21L));
+        assertTrue(surveyAccessIndex.find(101L).allows(7L));
+        assertFalse(surveyAccessIndex.find(101L).allows(23L));
     }
 
     // ---------------------------
     // 2) getAllSurveysForUser 测试
     // ---------------------------
-    @Test
-    void getAllSurveysForUser_MissingSessionToken() {
-        ResponseEntity<Map<String, Object>> response = surveyService.getAllSurveysForUser(null);
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertEquals(false, response.getBody().get("success"));
-        assertEquals("Session token is missing.", response.getBody().get("message"));
-    }
-
-    @Test
-    void getAllSurveysForUser_InvalidSession() {
-        when(sessionService.verifySession("invalidToken")).thenReturn(false);
-        ResponseEntity<Map<String, Object>> response =
-                surveyService.getAllSurveysForUser("invalidToken");
-        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
-        assertEquals(false, response.getBody().get("success"));
-        assertEquals("Unauthorized or session expired.", response.getBody().get("message"));
-    }
-
-    @Test
-    void getAllSurveysForUser_UserNotFound() {
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-        Session session = new Session();
-        session.setUsername("unknownUser");
-        when(sessionRepository.findBySessionToken("validToken"))
-                .thenReturn(Optional.of(session));
-        when(userRepository.findByUsername("unknownUser"))
-                .thenReturn(Optional.empty());
-
-        ResponseEntity<Map<String, Object>> response =
-                surveyService.getAllSurveysForUser("validToken");
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertEquals(false, response.getBody().get("success"));
-        assertEquals("User not found in database.", response.getBody().get("message"));
-    }
-
     @Test
     void getAllSurveysForUser_Success() {
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-        when(sessionRepository.findBySessionToken("validToken"))
-                .thenReturn(Optional.of(mockSession));
-        when(userRepository.findByUsername("testUser"))
-                .thenReturn(Optional.of(mockUser));
-
-        List<Survey> mockSurveyList = new ArrayList<>();
-        Survey s1 = new Survey();
-        s1.setId(11L);
-        s1.setSurveyName("Survey11");
-        s1.setUser(mockUser);
-        Survey s2 = new Survey();
-        s2.setId(12L);
-        s2.setSurveyName("Survey12");
-        s2.setUser(mockUser);
-        mockSurveyList.add(s1);
-        mockSurveyList.add(s2);
-
-        when(surveyRepository.findAllByUser(mockUser)).thenReturn(mockSurveyList);
+        when(surveyRepository.findOwnedPage(7L, 0L, null, Limit.of(51)))
+                .thenReturn(List.of(summary(11L, "Survey11"), summary(12L, "Survey12")));
 
         ResponseEntity<Map<String, Object>> response =
-                surveyService.getAllSurveysForUser("validToken");
+                surveyService.getAllSurveysForUser(new SurveyPageRequest(), authenticatedUser);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody().get("surveys"));
 
         List<?> surveys = (List<?>) response.getBody().get("surveys");
         assertEquals(2, surveys.size());
+        assertEquals(false, response.getBody().get("hasMore"));
+        assertNull(response.getBody().get("nextCursor"));
+        // 未请求总数时不执行 count 查询
+        assertFalse(response.getBody().containsKey("total"));
+        verify(surveyRepository, never()).countOwned(anyLong(), any());
     }
 
-    // ---------------------------
-    // 3) updateQuestions 测试
-    // ---------------------------
     @Test
-    void updateQuestions_MissingSessionToken() {
-        UpdateQuestionsRequest req = new UpdateQuestionsRequest();
-        req.setSessionToken(null);
+    void getAllSurveysForUser_NextPageCursorAndTotal() {
+        SurveyPageRequest request = new SurveyPageRequest();
+        request.setAfterId(10L);
+        request.setPageSize(2);
+        request.setName("50%_off");
+        request.setIncludeTotal(true);
 
-        ResponseEntity<Map<String, Object>> response = surveyService.updateQuestions(req);
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertEquals(false, response.getBody().get("success"));
-        assertEquals("Session token is missing.", response.getBody().get("message"));
+        when(surveyRepository.findOwnedPage(7L, 10L, "%50!%!_off%", Limit.of(3)))
+                .thenReturn(List.of(summary(11L, "A"), summary(12L, "B"), summary(13L, "C")));
+        when(surveyRepository.countOwned(7L, "%50!%!_off%")).thenReturn(5L);
+
+        ResponseEntity<Map<String, Object>> response =
+                surveyService.getAllSurveysForUser(request, authenticatedUser);
+
+        assertEquals(2, ((List<?>) response.getBody().get("surveys")).size());
+        assertEquals(true, response.getBody().get("hasMore"));
+        assertEquals(12L, response.getBody().get("nextCursor"));
+        assertEquals(5L, response.getBody().get("total"));
     }
 
     @Test
-    void updateQuestions_InvalidSession() {
-        UpdateQuestionsRequest req = new UpdateQuestionsRequest();
-        req.setSessionToken("tokenX");
-        req.setSurveyId("1");
+    void getAllSurveysForUser_PageSizeCapped() {
+        SurveyPageRequest request = new SurveyPageRequest();
+        request.setPageSize(100_000);
 
-        when(sessionService.verifySession("tokenX")).thenReturn(false);
+        when(surveyRepository.findOwnedPage(7L, 0L, null, Limit.of(201))).thenReturn(List.of());
 
-        ResponseEntity<Map<String, Object>> response = surveyService.updateQuestions(req);
-        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
-        assertEquals(false, response.getBody().get("success"));
-        assertEquals("Unauthorized or session expired.", response.getBody().get("message"));
+        ResponseEntity<Map<String, Object>> response =
+                surveyService.getAllSurveysForUser(request, authenticatedUser);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(surveyRepository).findOwnedPage(7L, 0L, null, Limit.of(201));
     }
 
+    // ---------------------------
+    // 3) updateQuestions 测试
+    // ---------------------------
     @Test
     void updateQuestions_InvalidSurveyId() {
         UpdateQuestionsRequest req = new UpdateQuestionsRequest();
         req.setSessionToken("validToken");
         req.setSurveyId("abc"); // 非数字
 
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-
         ResponseEntity<Map<String, Object>> response = surveyService.updateQuestions(req);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals(false, response.getBody().get("success"));
@@ -310,8 +241,7 @@ class SurveyServiceTest {
         req.setSessionToken("validToken");
         req.setSurveyId("99");
 
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-        when(surveyRepository.findById(99L)).thenReturn(Optional.empty());
+        when(surveyRepository.findQuestionsVersionById(99L)).thenReturn(Optional.empty());
 
         ResponseEntity<Map<String, Object>> response = surveyService.updateQuestions(req);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -324,17 +254,17 @@ class SurveyServiceTest {
         UpdateQuestionsRequest req = new UpdateQuestionsRequest();
         req.setSessionToken("validToken");
         req.setSurveyId("1");
-        // questions=null
+        // questions=null => 清空
 
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-        when(surveyRepository.findById(1L)).thenReturn(Optional.of(mockSurvey));
+        when(surveyRepository.findQuestionsVersionById(1L)).thenReturn(Optional.of(0L));
+        when(questionRepository.applyChanges(1L, 0L, List.of()))
+                .thenReturn(Optional.of(new QuestionChanges(0, 0, 3, 1L, List.of())));
 
         ResponseEntity<Map<String, Object>> response = surveyService.updateQuestions(req);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(true, response.getBody().get("success"));
         assertEquals("Questions updated successfully.", response.getBody().get("message"));
-        verify(questionRepository, times(1)).deleteBySurveyId(1L);
-        verify(questionRepository, never()).saveAll(anyList());
+        assertEquals(3, response.getBody().get("deleted"));
     }
 
     @Test
@@ -344,64 +274,77 @@ class SurveyServiceTest {
         req.setSurveyId("1");
 
         Question q1 = new Question();
+        q1.setId(11L);
+        q1.setQuestion_order(1);
         q1.setBody("Q1 body");
         Question q2 = new Question();
+        q2.setId(12L);
+        q2.setQuestion_order(2);
         q2.setBody("Q2 body");
         List<Question> questionList = Arrays.asList(q1, q2);
         req.setQuestions(questionList);
 
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-        when(surveyRepository.findById(1L)).thenReturn(Optional.of(mockSurvey));
+        when(surveyRepository.findQuestionsVersionById(1L)).thenReturn(Optional.of(4L));
+        when(questionRepository.applyChanges(1L, 4L, questionList))
+                .thenReturn(Optional.of(new QuestionChanges(1, 1, 0, 5L, questionList)));
 
         ResponseEntity<Map<String, Object>> response = surveyService.updateQuestions(req);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(true, response.getBody().get("success"));
         assertEquals("Questions updated successfully.", response.getBody().get("message"));
-
-        verify(questionRepository, times(1)).deleteBySurveyId(1L);
-        verify(questionRepository, times(1)).saveAll(questionList);
+        assertEquals(5L, response.getBody().get("questionsVersion"));
+        assertEquals(1, response.getBody().get("inserted"));
+        assertEquals(1, response.getBody().get("updated"));
+        assertEquals(0, response.getBody().get("deleted"));
     }
 
-    // ---------------------------
-    // 4) getSurveyDetail 测试
-    // ---------------------------
     @Test
-    void getSurveyDetail_MissingSessionToken() {
-        GetSurveyDetailRequest req = new GetSurveyDetailRequest();
-        req.setSessionToken(null);
+    void updateQuestions_StaleClientVersion() {
+        UpdateQuestionsRequest req = new UpdateQuestionsRequest();
+        req.setSessionToken("validToken");
+        req.setSurveyId("1");
+        req.setQuestionsVersion(2L);
+        req.setQuestions(List.of(new Question()));
 
-        ResponseEntity<Map<String, Object>> response = surveyService.getSurveyDetail(req);
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        when(surveyRepository.findQuestionsVersionById(1L)).thenReturn(Optional.of(3L));
+
+        ResponseEntity<Map<String, Object>> response = surveyService.updateQuestions(req);
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
         assertEquals(false, response.getBody().get("success"));
-        assertEquals("Session token is missing.", response.getBody().get("message"));
+        assertEquals(3L, response.getBody().get("questionsVersion"));
+        verifyNoInteractions(questionRepository);
     }
 
     @Test
-    void getSurveyDetail_UnauthorizedSession() {
-        GetSurveyDetailRequest req = new GetSurveyDetailRequest();
-        req.setSessionToken("tokenX");
+    void updateQuestions_ConcurrentUpdateDetected() {
+        UpdateQuestionsRequest req = new UpdateQuestionsRequest();
+        req.setSessionToken("validToken");
         req.setSurveyId("1");
 
-        when(sessionService.verifySession("tokenX")).thenReturn(false);
+        // 读取版本号之后、写入之前有另一个请求提交了修改
+        when(surveyRepository.findQuestionsVersionById(1L)).thenReturn(Optional.of(3L), Optional.of(4L));
+        when(questionRepository.applyChanges(1L, 3L, List.of())).thenReturn(Optional.empty());
 
-        ResponseEntity<Map<String, Object>> response = surveyService.getSurveyDetail(req);
-        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
-        assertEquals(false, response.getBody().get("success"));
-        assertEquals("Unauthorized or session expired.", response.getBody().get("message"));
+        ResponseEntity<Map<String, Object>> response = surveyService.updateQuestions(req);
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(4L, response.getBody().get("questionsVersion"));
+        assertNull(surveyDetailCache.get(1L, 4L));
     }
 
+    // ---------------------------
+    // 4) getSurveyDetail 测试
+    // ---------------------------
     @Test
     void getSurveyDetail_InvalidSurveyId() {
         GetSurveyDetailRequest req = new GetSurveyDetailRequest();
         req.setSessionToken("validToken");
         req.setSurveyId("abc");
 
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-
-        ResponseEntity<Map<String, Object>> response = surveyService.getSurveyDetail(req);
+        ResponseEntity<Object> response = surveyService.getSurveyDetail(req, authenticatedUser, null, null);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertEquals(false, response.getBody().get("success"));
-        assertEquals("Invalid survey ID.", response.getBody().get("message"));
+        Map<?, ?> body = (Map<?, ?>) response.getBody();
+        assertEquals(false, body.get("success"));
+        assertEquals("Invalid survey ID.", body.get("message"));
     }
 
     @Test
@@ -410,32 +353,44 @@ class SurveyServiceTest {
         req.setSessionToken("validToken");
         req.setSurveyId("99");
 
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-        when(surveyRepository.findById(99L)).thenReturn(Optional.empty());
-
-        ResponseEntity<Map<String, Object>> response = surveyService.getSurveyDetail(req);
+        ResponseEntity<Object> response = surveyService.getSurveyDetail(req, authenticatedUser, null, null);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertEquals(false, response.getBody().get("success"));
-        assertEquals("Survey not found in database.", response.getBody().get("message"));
+        Map<?, ?> body = (Map<?, ?>) response.getBody();
+        assertEquals(false, body.get("success"));
+        assertEquals("Survey not found in database.", body.get("message"));
+    }
+
+    @Test
+    void getSurveyDetail_ForbiddenWithoutGrant() {
+        surveyAccessIndex.add(5L, 8L, false, List.of(9L));
+        GetSurveyDetailRequest req = new GetSurveyDetailRequest();
+        req.setSessionToken("validToken");
+        req.setSurveyId("5");
+
+        ResponseEntity<Object> response = surveyService.getSurveyDetail(req, authenticatedUser, null, null);
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        assertEquals("You do not have access to this survey.", ((Map<?, ?>) response.getBody()).get("message"));
+        verify(surveyRepository, never()).findQuestionsVersionById(anyLong());
     }
 
     @Test
-    void getSurveyDetail_Success_NoQuestions() {
+    void getSurveyDetail_Success_NoQuestions() throws Exception {
         GetSurveyDetailRequest req = new GetSurveyDetailRequest();
         req.setSessionToken("validToken");
         req.setSurveyId("1");
 
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-        when(surveyRepository.findById(1L)).thenReturn(Optional.of(mockSurvey));
-        when(questionRepository.findBySurveyId(1L)).thenReturn(Optional.empty());
+        when(surveyRepository.findQuestionsVersionById(1L)).thenReturn(Optional.of(0L));
+        when(questionRepository.findDetailsBySurveyId(1L)).thenReturn(List.of());
 
-        ResponseEntity<Map<String, Object>> response = surveyService.getSurveyDetail(req);
+        ResponseEntity<Object> response = surveyService.getSurveyDetail(req, authenticatedUser, null, null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertNotNull(response.getBody().get("questions"));
+        JsonNode questions = objectMapper.readTree((byte[]) response.getBody()).get("questions");
+        assertNotNull(questions);
+        assertEquals(0, questions.size());
     }
 
     @Test
-    void getSurveyDetail_Success_WithQuestions() {
+    void getSurveyDetail_Success_WithQuestions() throws Exception {
         GetSurveyDetailRequest req = new GetSurveyDetailRequest();
         req.setSessionToken("validToken");
         req.setSurveyId("1");
@@ -450,94 +405,243 @@ class SurveyServiceTest {
         q2.setBody("Q2");
         q2.setSurvey(mockSurvey);
 
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-        when(surveyRepository.findById(1L)).thenReturn(Optional.of(mockSurvey));
-        when(questionRepository.findBySurveyId(1L))
-                .thenReturn(Optional.of(Arrays.asList(q1, q2)));
+        when(surveyRepository.findQuestionsVersionById(1L)).thenReturn(Optional.of(0L));
+        when(questionRepository.findDetailsBySurveyId(1L))
+                .thenReturn(List.of(QuestionDTO.from(q1), QuestionDTO.from(q2)));
 
-        ResponseEntity<Map<String, Object>> response = surveyService.getSurveyDetail(req);
+        ResponseEntity<Object> response = surveyService.getSurveyDetail(req, authenticatedUser, null, null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertNotNull(response.getBody().get("questions"));
-
-        // 确认question里的survey被置空
-        Optional<List<Question>> questionListOpt =
-                (Optional<List<Question>>) response.getBody().get("questions");
-        assertTrue(questionListOpt.isPresent());
-        assertNull(questionListOpt.get().get(0).getSurvey());
-        assertNull(questionListOpt.get().get(1).getSurvey());
+        assertEquals("\"q1-0\"", response.getHeaders().getETag());
+
+        // 返回的 JSON 不包含 survey
+        JsonNode questions = objectMapper.readTree((byte[]) response.getBody()).get("questions");
+        assertEquals(2, questions.size());
+        assertEquals(101L, questions.get(0).get("id").asLong());
+        assertEquals("Q2", questions.get(1).get("body").asText());
+        assertNull(questions.get(0).get("survey"));
     }
 
-    // ---------------------------
-    // 5) getAccessibleSurvey 测试
-    // ---------------------------
     @Test
-    void getAccessibleSurvey_MissingSessionToken() {
-        ResponseEntity<Map<String, Object>> response =
-                surveyService.getAccessibleSurvey(null);
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertFalse((Boolean) response.getBody().get("success"));
-        assertEquals("Session token is missing.", response.getBody().get("message"));
+    void getSurveyDetail_SecondCallServedFromCache() {
+        GetSurveyDetailRequest req = new GetSurveyDetailRequest();
+        req.setSessionToken("validToken");
+        req.setSurveyId("1");
+
+        Question q1 = new Question();
+        q1.setId(101L);
+        q1.setBody("Q1");
+
+        when(surveyRepository.findQuestionsVersionById(1L)).thenReturn(Optional.of(3L));
+        when(questionRepository.findDetailsBySurveyId(1L)).thenReturn(List.of(QuestionDTO.from(q1)));
+
+        ResponseEntity<Object> first = surveyService.getSurveyDetail(req, authenticatedUser, null, null);
+        ResponseEntity<Object> second = surveyService.getSurveyDetail(req, authenticatedUser, null, null);
+
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        // 同一份字节，不重新序列化
+        assertSame(first.getBody(), second.getBody());
+        verify(questionRepository, times(1)).findDetailsBySurveyId(1L);
+        assertEquals(1, surveyDetailCache.stats().hitCount());
     }
 
     @Test
-    void getAccessibleSurvey_UnauthorizedSession() {
-        when(sessionService.verifySession("badToken")).thenReturn(false);
+    void getSurveyDetail_ReloadsWhenVersionChanged() throws Exception {
+        GetSurveyDetailRequest req = new GetSurveyDetailRequest();
+        req.setSessionToken("validToken");
+        req.setSurveyId("1");
 
-        ResponseEntity<Map<String, Object>> response =
-                surveyService.getAccessibleSurvey("badToken");
-        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
-        assertFalse((Boolean) response.getBody().get("success"));
-        assertEquals("Unauthorized or session expired.", response.getBody().get("message"));
+        Question q1 = new Question();
+        q1.setId(101L);
+        q1.setBody("Q1");
+        surveyDetailCache.put(1L, SurveyDetailPayload.render(1L, 1L,
+                List.of(QuestionDTO.from(q1)), objectMapper, false));
+
+        // 其他节点更新过问题，数据库版本号已经是 2
+        when(surveyRepository.findQuestionsVersionById(1L)).thenReturn(Optional.of(2L));
+        when(questionRepository.findDetailsBySurveyId(1L)).thenReturn(List.of());
+
+        ResponseEntity<Object> response = surveyService.getSurveyDetail(req, authenticatedUser, null, null);
+
+        assertEquals(0, objectMapper.readTree((byte[]) response.getBody()).get("questions").size());
+        verify(questionRepository, times(1)).findDetailsBySurveyId(1L);
     }
 
     @Test
-    void getAccessibleSurvey_UserNotFound() {
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-        when(sessionRepository.findBySessionToken("validToken"))
-                .thenReturn(Optional.of(mockSession));
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.empty());
+    void getSurveyDetail_NotModifiedWhenEtagMatches() {
+        GetSurveyDetailRequest req = new GetSurveyDetailRequest();
+        req.setSessionToken("validToken");
+        req.setSurveyId("1");
 
-        ResponseEntity<Map<String, Object>> response =
-                surveyService.getAccessibleSurvey("validToken");
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertFalse((Boolean) response.getBody().get("success"));
-        assertEquals("User not found in database.", response.getBody().get("message"));
+        when(surveyRepository.findQuestionsVersionById(1L)).thenReturn(Optional.of(4L));
+
+        ResponseEntity<Object> response = surveyService.getSurveyDetail(req, authenticatedUser, "\"q1-4-gz\"", "gzip");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"q1-4-gz\"", response.getHeaders().getETag());
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeaders().getFirst(HttpHeaders.VARY));
+        assertNull(response.getBody());
+        verifyNoInteractions(questionRepository);
+    }
+
+    @Test
+    void getSurveyDetail_NotModifiedEchoesMatchedEtag() {
+        GetSurveyDetailRequest req = new GetSurveyDetailRequest();
+        req.setSessionToken("validToken");
+        req.setSurveyId("1");
+
+        when(surveyRepository.findQuestionsVersionById(1L)).thenReturn(Optional.of(4L));
+
+        // 弱比较命中原始表示；"*" 回显将要发送的表示
+        ResponseEntity<Object> identity = surveyService.getSurveyDetail(req, authenticatedUser,
+                "\"q1-3\", W/\"q1-4\"", null);
+        ResponseEntity<Object> any = surveyService.getSurveyDetail(req, authenticatedUser, "*", "gzip");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, identity.getStatusCode());
+        assertEquals("\"q1-4\"", identity.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, any.getStatusCode());
+        assertEquals("\"q1-4-gz\"", any.getHeaders().getETag());
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, any.getHeaders().getFirst(HttpHeaders.VARY));
+        verifyNoInteractions(questionRepository);
+    }
+
+    @Test
+    void getSurveyDetail_GzipWhenAccepted() throws Exception {
+        GetSurveyDetailRequest req = new GetSurveyDetailRequest();
+        req.setSessionToken("validToken");
+        req.setSurveyId("1");
+
+        Question q1 = new Question();
+        q1.setId(101L);
+        q1.setBody("Q1");
+
+        when(surveyRepository.findQuestionsVersionById(1L)).thenReturn(Optional.of(0L));
+        when(questionRepository.findDetailsBySurveyId(1L)).thenReturn(List.of(QuestionDTO.from(q1)));
+
+        ResponseEntity<Object> response = surveyService.getSurveyDetail(req, authenticatedUser, "\"q1-stale\"", "br, gzip;q=0.8");
+
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"q1-0-gz\"", response.getHeaders().getETag());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream((byte[]) response.getBody()))) {
+            assertEquals(101L, objectMapper.readTree(in).get("questions").get(0).get("id").asLong());
+        }
+    }
+
+    @Test
+    void updateQuestions_ReplacesCachedDetail() throws Exception {
+        Question old = new Question();
+        old.setId(1L);
+        old.setBody("old");
+        surveyDetailCache.put(1L, SurveyDetailPayload.render(1L, 0L,
+                List.of(QuestionDTO.from(old)), objectMapper, false));
+
+        Question fresh = new Question();
+        fresh.setId(1L);
+        fresh.setQuestion_order(1);
+        fresh.setBody("new");
+        UpdateQuestionsRequest req = new UpdateQuestionsRequest();
+        req.setSessionToken("validToken");
+        req.setSurveyId("1");
+        req.setQuestions(List.of(fresh));
+
+        when(surveyRepository.findQuestionsVersionById(1L)).thenReturn(Optional.of(0L));
+        when(questionRepository.applyChanges(1L, 0L, List.of(fresh)))
+                .thenReturn(Optional.of(new QuestionChanges(0, 1, 0, 1L, List.of(fresh))));
+
+        surveyService.updateQuestions(req);
+
+        assertNull(surveyDetailCache.get(1L, 0L));
+        SurveyDetailPayload cached = surveyDetailCache.get(1L, 1L);
+        JsonNode json = objectMapper.readTree(cached.getJson());
+        assertEquals(1L, json.get("questionsVersion").asLong());
+        assertEquals(1, json.get("questions").size());
+        assertEquals("new", json.get("questions").get(0).get("body").asText());
     }
 
+    // ---------------------------
+    // 5) getAccessibleSurvey 测试
+    // ---------------------------
     @Test
     void getAccessibleSurvey_Success() {
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-        when(sessionRepository.findBySessionToken("validToken"))
-                .thenReturn(Optional.of(mockSession));
-        when(userRepository.findByUsername("testUser"))
-                .thenReturn(Optional.of(mockUser));
-
-        // user自己创建过1个survey
-        List<Survey> userSurveys = new ArrayList<>();
-        userSurveys.add(mockSurvey); // ID=1
-        when(surveyRepository.findAllByUser(mockUser)).thenReturn(userSurveys);
-
-        // access 里多1个 survey(2)
-        Access a1 = new Access();
-        a1.setUser(mockUser);
-        Survey s2 = new Survey();
-        s2.setId(2L);
-        a1.setSurvey(s2);
-
-        // 这里模仿: user对survey=2有访问权限
-        List<Access> mockAccesses = new ArrayList<>();
-        mockAccesses.add(a1);
-        when(accessRepository.findAccessByUser(mockUser)).thenReturn(mockAccesses);
-
-        // surveyRepository.findAllById([2]) => 取到 s2
-        when(surveyRepository.findAllById(anyList())).thenReturn(Arrays.asList(s2));
+        // 自己创建的 ID=1 和通过 access 拿到的 ID=2 分别来自两条索引查询
+        when(surveyRepository.findOwnedPage(7L, 0L, null, Limit.of(51)))
+                .thenReturn(List.of(summary(1L, "MySurvey")));
+        when(surveyRepository.findGrantedPage(7L, 0L, null, Limit.of(51)))
+                .thenReturn(List.of(summary(2L, "Shared")));
 
         ResponseEntity<Map<String, Object>> response =
-                surveyService.getAccessibleSurvey("validToken");
+                surveyService.getAccessibleSurvey(new SurveyPageRequest(), authenticatedUser);
         assertEquals(HttpStatus.OK, response.getStatusCode());
 
-        List<Survey> retSurveys = (List<Survey>) response.getBody().get("surveys");
+        List<Map<String, Object>> retSurveys = (List<Map<String, Object>>) response.getBody().get("surveys");
         assertEquals(2, retSurveys.size());
-        // 包含自己创建 ID=1, 以及通过 access 拿到的 ID=2
+        assertEquals(2L, retSurveys.get(1).get("surveyId"));
+        verifyNoInteractions(accessRepository);
+    }
+
+    @Test
+    void getAccessibleSurvey_MergesPublicSurveysById() {
+        // ID=2 是自己创建的公开问卷：数据库查询和公开缓存都会返回，只能出现一次
+        when(surveyRepository.findPublicSummaries())
+                .thenReturn(List.of(summary(2L, "Mine, public"), summary(3L, "Public")));
+        when(surveyRepository.findOwnedPage(7L, 0L, null, Limit.of(3)))
+                .thenReturn(List.of(summary(2L, "Mine, public"), summary(4L, "Mine")));
+        when(surveyRepository.findGrantedPage(7L, 0L, null, Limit.of(3)))
+                .thenReturn(List.of(summary(1L, "Granted")));
+        // 总数与行同源：自己的 {2, 4} + 被授权的 {1} + 公开的 {2, 3} - 自己的公开问卷 {2}
+        when(surveyRepository.countOwned(7L, null)).thenReturn(2L);
+        when(surveyRepository.countGranted(7L, null)).thenReturn(1L);
+        when(surveyRepository.countOwnedPublic(7L, null)).thenReturn(1L);
+
+        SurveyPageRequest request = new SurveyPageRequest();
+        request.setPageSize(2);
+        request.setIncludeTotal(true);
+        ResponseEntity<Map<String, Object>> response = surveyService.getAccessibleSurvey(request, authenticatedUser);
+
+        List<Map<String, Object>> retSurveys = (List<Map<String, Object>>) response.getBody().get("surveys");
+        assertEquals(List.of(1L, 2L), retSurveys.stream().map(s -> s.get("surveyId")).toList());
+        assertEquals(true, response.getBody().get("hasMore"));
+        assertEquals(2L, response.getBody().get("nextCursor"));
+        assertEquals(4L, response.getBody().get("total"));
+    }
+
+    @Test
+    void getAccessibleSurvey_NameFilterCountsEachSourceOnce() {
+        // 公开缓存里只有自己创建的 ID=2，它同时被 countOwned 计入
+        when(surveyRepository.findPublicSummaries()).thenReturn(List.of(summary(2L, "Poll mine")));
+        when(surveyRepository.findOwnedPage(7L, 0L, "%poll%", Limit.of(51)))
+                .thenReturn(List.of(summary(2L, "Poll mine")));
+        when(surveyRepository.findGrantedPage(7L, 0L, "%poll%", Limit.of(51)))
+                .thenReturn(List.of(summary(5L, "Poll shared")));
+        when(surveyRepository.countOwned(7L, "%poll%")).thenReturn(1L);
+        when(surveyRepository.countGranted(7L, "%poll%")).thenReturn(1L);
+        when(surveyRepository.countOwnedPublic(7L, "%poll%")).thenReturn(1L);
+
+        SurveyPageRequest request = new SurveyPageRequest();
+        request.setName("poll");
+        request.setIncludeTotal(true);
+        ResponseEntity<Map<String, Object>> response = surveyService.getAccessibleSurvey(request, authenticatedUser);
+
+        List<Map<String, Object>> retSurveys = (List<Map<String, Object>>) response.getBody().get("surveys");
+        assertEquals(List.of(2L, 5L), retSurveys.stream().map(s -> s.get("surveyId")).toList());
+        assertEquals(2L, response.getBody().get("total"));
+    }
+
+    private static SurveySummary summary(Long id, String name) {
+        return new SurveySummary() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getSurveyName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return null;
+            }
+        };
     }
 }
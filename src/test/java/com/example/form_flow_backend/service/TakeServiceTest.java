@@ -1,15 +1,19 @@
 package com.example.form_flow_backend.service;
 
+import com.example.form_flow_backend.DTO.AnswerCount;
 import com.example.form_flow_backend.DTO.GetSurveyDetailRequest;
 import com.example.form_flow_backend.DTO.TakeSurveyRequest;
+import com.example.form_flow_backend.DTO.TakesStatsDTO;
 import com.example.form_flow_backend.model.*;
 import com.example.form_flow_backend.repository.*;
+import com.example.form_flow_backend.security.AuthenticatedUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.*;
 
@@ -22,76 +26,41 @@ class TakeServiceTest {
     @Mock
     private TakesRepository takesRepository;
     @Mock
-    private SessionRepository sessionRepository;
-    @Mock
-    private SessionService sessionService;
-    @Mock
     private UserRepository userRepository;
     @Mock
     private SurveyRepository surveyRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private AnswerCounterRepository answerCounterRepository;
+    @Mock
+    private TakeAnswerRepository takeAnswerRepository;
+    @Mock
+    private TakeStatsAggregator takeStatsAggregator;
 
-    @InjectMocks
+    private SurveyAccessIndex surveyAccessIndex;
+    private AnswerCounters answerCounters;
     private TakeService takeService;
 
     private TakeSurveyRequest request;
+    private AuthenticatedUser authenticatedUser;
 
     @BeforeEach
     void setUp() {
+        surveyAccessIndex = new SurveyAccessIndex(jdbcTemplate);
+        answerCounters = new AnswerCounters(answerCounterRepository);
+        takeService = new TakeService(takesRepository, userRepository, surveyRepository, surveyAccessIndex,
+                answerCounters, takeAnswerRepository, takeStatsAggregator);
         request = new TakeSurveyRequest();
-    }
-
-    @Test
-    void testTakeSurvey_sessionTokenNull() {
-        request.setSessionToken(null);
-        ResponseEntity<Map<String, Object>> response = takeService.takeSurvey(request);
-
-        assertEquals(400, response.getStatusCodeValue());
-        assertFalse(response.getBody().get("success").equals(true));
-        assertEquals("Session token is missing.", response.getBody().get("message"));
-    }
-
-    @Test
-    void testTakeSurvey_sessionInvalidOrExpired() {
-        request.setSessionToken("invalidToken");
-
-        when(sessionService.verifySession("invalidToken")).thenReturn(false);
-
-        ResponseEntity<Map<String, Object>> response = takeService.takeSurvey(request);
-
-        assertEquals(401, response.getStatusCodeValue());
-        assertFalse(response.getBody().get("success").equals(true));
-        assertEquals("Unauthorized or session expired.", response.getBody().get("message"));
-    }
-
-    @Test
-    void testTakeSurvey_userNotFound() {
-        request.setSessionToken("validToken");
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-
-        Session mockSession = new Session();
-        mockSession.setUsername("missingUser");
-        when(sessionRepository.findBySessionToken("validToken")).thenReturn(Optional.of(mockSession));
-        when(userRepository.findByUsername("missingUser")).thenReturn(Optional.empty());
-
-        ResponseEntity<Map<String, Object>> response = takeService.takeSurvey(request);
-
-        assertEquals(400, response.getStatusCodeValue());
-        assertFalse(response.getBody().get("success").equals(true));
-        assertEquals("User not found in database.", response.getBody().get("message"));
+        authenticatedUser = new AuthenticatedUser(100L, "someUser", "validToken");
     }
 
     @Test
     void testTakeSurvey_invalidSurveyId() {
         request.setSessionToken("validToken");
         request.setSurveyId("notANumber");
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-
-        Session mockSession = new Session();
-        mockSession.setUsername("someUser");
-        when(sessionRepository.findBySessionToken("validToken")).thenReturn(Optional.of(mockSession));
-        when(userRepository.findByUsername("someUser")).thenReturn(Optional.of(new User()));
 
-        ResponseEntity<Map<String, Object>> response = takeService.takeSurvey(request);
+        ResponseEntity<Map<String, Object>> response = takeService.takeSurvey(request, authenticatedUser);
 
         assertEquals(400, response.getStatusCodeValue());
         assertEquals("Invalid survey ID.", response.getBody().get("message"));
@@ -100,20 +69,9 @@ class TakeServiceTest {
     @Test
     void testTakeSurvey_surveyNotFound() {
         request.setSessionToken("validToken");
-        request.setSurveyId("123"); // valid long
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-
-        Session mockSession = new Session();
-        mockSession.setUsername("someUser");
-        when(sessionRepository.findBySessionToken("validToken")).thenReturn(Optional.of(mockSession));
-
-        User user = new User();
-        user.setId(100L);
-        when(userRepository.findByUsername("someUser")).thenReturn(Optional.of(user));
+        request.setSurveyId("123"); // valid long，索引和（模拟的）数据库里都没有
 
-        when(surveyRepository.findById(123L)).thenReturn(Optional.empty());
-
-        ResponseEntity<Map<String, Object>> response = takeService.takeSurvey(request);
+        ResponseEntity<Map<String, Object>> response = takeService.takeSurvey(request, authenticatedUser);
 
         assertEquals(400, response.getStatusCodeValue());
         assertEquals("Survey not found in database.", response.getBody().get("message"));
@@ -125,57 +83,39 @@ class TakeServiceTest {
         request.setSurveyId("123");
         request.setAnswers("answer_data");
 
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-
-        Session mockSession = new Session();
-        mockSession.setUsername("someUser");
-        when(sessionRepository.findBySessionToken("validToken")).thenReturn(Optional.of(mockSession));
-
         User user = new User();
         user.setId(100L);
-        when(userRepository.findByUsername("someUser")).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(100L)).thenReturn(user);
 
         Survey survey = new Survey();
         survey.setId(123L);
-        when(surveyRepository.findById(123L)).thenReturn(Optional.of(survey));
+        surveyAccessIndex.add(123L, 1L, false, List.of(100L));
+        when(surveyRepository.getReferenceById(123L)).thenReturn(survey);
 
-        ResponseEntity<Map<String, Object>> response = takeService.takeSurvey(request);
+        ResponseEntity<Map<String, Object>> response = takeService.takeSurvey(request, authenticatedUser);
 
         assertEquals(200, response.getStatusCodeValue());
         assertTrue((Boolean) response.getBody().get("success"));
         assertEquals("Answers saved successfully.", response.getBody().get("message"));
 
-        // 验证数据是否被保存
-        verify(takesRepository, times(1)).save(any(Takes.class));
+        // 验证数据是否被保存，且没有再按 username 查询用户
+        verify(takesRepository, times(1)).saveWithAnswers(any(Takes.class));
+        verify(userRepository, never()).findByUsername(anyString());
+        // 计数已在内存中累加
+        assertEquals(1L, answerCounters.countsFor(123L).get(1).get("answer_data"));
     }
 
-
     @Test
-    void testGetSurveyTakeStatistics_sessionTokenNull() {
-        // 构造请求, 不传 sessionToken
-        GetSurveyDetailRequest req = new GetSurveyDetailRequest();
-        req.setSurveyId("123");
+    void testTakeSurvey_forbiddenWithoutGrant() {
+        request.setSessionToken("validToken");
+        request.setSurveyId("123");
+        surveyAccessIndex.add(123L, 1L, false, List.of(200L));
 
-        ResponseEntity<Map<String, Object>> response = takeService.getSurveyTakeStatistics(req);
+        ResponseEntity<Map<String, Object>> response = takeService.takeSurvey(request, authenticatedUser);
 
-        assertEquals(400, response.getStatusCodeValue());
-        assertFalse((Boolean) response.getBody().get("success"));
-        assertEquals("Session token is missing.", response.getBody().get("message"));
-    }
-
-    @Test
-    void testGetSurveyTakeStatistics_sessionInvalid() {
-        GetSurveyDetailRequest req = new GetSurveyDetailRequest();
-        req.setSessionToken("invalid");
-        req.setSurveyId("123");
-
-        when(sessionService.verifySession("invalid")).thenReturn(false);
-
-        ResponseEntity<Map<String, Object>> response = takeService.getSurveyTakeStatistics(req);
-
-        assertEquals(401, response.getStatusCodeValue());
-        assertFalse((Boolean) response.getBody().get("success"));
-        assertEquals("Unauthorized or session expired.", response.getBody().get("message"));
+        assertEquals(403, response.getStatusCodeValue());
+        assertEquals("You do not have access to this survey.", response.getBody().get("message"));
+        verify(takesRepository, never()).saveWithAnswers(any(Takes.class));
     }
 
     @Test
@@ -184,14 +124,11 @@ class TakeServiceTest {
         req.setSessionToken("validToken");
         req.setSurveyId("abc"); // 非数字
 
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-
-        // sessionRepository.findBySessionToken(...) 省略,若需要也可以Mock
         ResponseEntity<Map<String, Object>> response = takeService.getSurveyTakeStatistics(req);
 
-        assertEquals(401, response.getStatusCodeValue());
+        assertEquals(400, response.getStatusCodeValue());
         assertFalse((Boolean) response.getBody().get("success"));
-        assertEquals("Unauthorized or session expired. (Session not found in DB)", response.getBody().get("message"));
+        assertEquals("Invalid survey ID.", response.getBody().get("message"));
     }
 
     @Test
@@ -200,15 +137,7 @@ class TakeServiceTest {
         req.setSessionToken("validToken");
         req.setSurveyId("999");
 
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-
-        Session mockSession = new Session();
-        mockSession.setUsername("testUser");
-        when(sessionRepository.findBySessionToken("validToken"))
-                .thenReturn(Optional.of(mockSession));
-
-        // findTakesBySurveyId 返回空 => no takes found
-        when(takesRepository.findTakesBySurveyId(999L)).thenReturn(Collections.emptyList());
+        // 计数表和内存里都没有 => no takes found
 
         ResponseEntity<Map<String, Object>> response = takeService.getSurveyTakeStatistics(req);
         assertEquals(400, response.getStatusCodeValue());
@@ -222,31 +151,20 @@ class TakeServiceTest {
         req.setSessionToken("validToken");
         req.setSurveyId("888");
 
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-
-        Session mockSession = new Session();
-        mockSession.setUsername("testUser");
-        when(sessionRepository.findBySessionToken("validToken"))
-                .thenReturn(Optional.of(mockSession));
-
-        // 构造 Takes: "A;B" => 两题分别回答 "A", "B"
-        Takes t1 = new Takes();
-        t1.setAnswers("A;B");
-
-        Takes t2 = new Takes();
-        t2.setAnswers("A;C"); // 第2题回答"C"
-
-        List<Takes> allTakes = Arrays.asList(t1, t2);
-        when(takesRepository.findTakesBySurveyId(888L)).thenReturn(allTakes);
+        // 构造答案: "A;B" => 两题分别回答 "A", "B"；第2份第2题回答"C"
+        answerCounters.record(888L, "A;B");
+        answerCounters.record(888L, "A;C");
 
         ResponseEntity<Map<String, Object>> response = takeService.getSurveyTakeStatistics(req);
         assertEquals(200, response.getStatusCodeValue());
         assertTrue((Boolean) response.getBody().get("success"));
 
         // 拿到 stats
-        List<?> stats = (List<?>) response.getBody().get("stats");
+        List<TakesStatsDTO> stats = (List<TakesStatsDTO>) response.getBody().get("stats");
         assertEquals(2, stats.size()); // 2个question
-        // 你可继续断言 stats[0] 中A=2; stats[1] 中 B=1, C=1 等
+        assertEquals(Map.of("A", 2), stats.get(0).getStats());
+        assertEquals(Map.of("B", 1, "C", 1), stats.get(1).getStats());
+        verifyNoInteractions(takesRepository);
     }
 
     @Test
@@ -256,28 +174,101 @@ class TakeServiceTest {
         req.setSessionToken("validToken");
         req.setSurveyId("777");
 
-        when(sessionService.verifySession("validToken")).thenReturn(true);
-
-        Session mockSession = new Session();
-        mockSession.setUsername("testUser");
-        when(sessionRepository.findBySessionToken("validToken"))
-                .thenReturn(Optional.of(mockSession));
-
-        Takes t1 = new Takes();
         // 第1题: "A,B"; 第2题: "X"
-        t1.setAnswers("A,B;X");
-
-        List<Takes> allTakes = Collections.singletonList(t1);
-        when(takesRepository.findTakesBySurveyId(777L)).thenReturn(allTakes);
+        answerCounters.record(777L, "A,B;X");
 
         ResponseEntity<Map<String, Object>> response = takeService.getSurveyTakeStatistics(req);
         assertEquals(200, response.getStatusCodeValue());
         assertTrue((Boolean) response.getBody().get("success"));
 
         // 断言 stats
-        List<?> stats = (List<?>) response.getBody().get("stats");
+        List<TakesStatsDTO> stats = (List<TakesStatsDTO>) response.getBody().get("stats");
+        assertEquals(2, stats.size());
+        assertEquals(Map.of("A", 1, "B", 1), stats.get(0).getStats());
+        assertEquals(Map.of("X", 1), stats.get(1).getStats());
+    }
+
+    @Test
+    void testGetSurveyTakeStatistics_addsUnflushedCountsToStoredCounters() {
+        GetSurveyDetailRequest req = new GetSurveyDetailRequest();
+        req.setSessionToken("validToken");
+        req.setSurveyId("666");
+
+        when(answerCounterRepository.findCountsBySurveyId(666L)).thenReturn(List.of(
+                new AnswerCount(666L, 1, "A", 40L),
+                new AnswerCount(666L, 2, "B", 40L)));
+        answerCounters.record(666L, "A;C");
+
+        ResponseEntity<Map<String, Object>> response = takeService.getSurveyTakeStatistics(req);
+
+        List<TakesStatsDTO> stats = (List<TakesStatsDTO>) response.getBody().get("stats");
+        assertEquals(Map.of("A", 41), stats.get(0).getStats());
+        assertEquals(Map.of("B", 40, "C", 1), stats.get(1).getStats());
+    }
+
+    @Test
+    void testRecomputeSurveyTakeStatistics_ownerGetsDatabaseAggregate() {
+        GetSurveyDetailRequest req = new GetSurveyDetailRequest();
+        req.setSessionToken("validToken");
+        req.setSurveyId("555");
+        surveyAccessIndex.add(555L, 100L, false, List.of());
+
+        when(takeAnswerRepository.countAnswersBySurveyId(555L)).thenReturn(List.of(
+                new AnswerCount(555L, 1, "A", 3L),
+                new AnswerCount(555L, 1, "B", 1L),
+                new AnswerCount(555L, 2, "C", 4L)));
+
+        ResponseEntity<Map<String, Object>> response = takeService.recomputeSurveyTakeStatistics(req, authenticatedUser);
+
+        assertEquals(200, response.getStatusCodeValue());
+        List<TakesStatsDTO> stats = (List<TakesStatsDTO>) response.getBody().get("stats");
         assertEquals(2, stats.size());
-        // ...
+        assertEquals(Map.of("A", 3, "B", 1), stats.get(0).getStats());
+        assertEquals(Map.of("C", 4), stats.get(1).getStats());
+        verifyNoInteractions(answerCounterRepository, takesRepository);
     }
 
+    @Test
+    void testRecomputeSurveyTakeStatistics_forbiddenForGrantee() {
+        GetSurveyDetailRequest req = new GetSurveyDetailRequest();
+        req.setSessionToken("validToken");
+        req.setSurveyId("555");
+        surveyAccessIndex.add(555L, 1L, false, List.of(100L));
+
+        ResponseEntity<Map<String, Object>> response = takeService.recomputeSurveyTakeStatistics(req, authenticatedUser);
+
+        assertEquals(403, response.getStatusCodeValue());
+        verifyNoInteractions(takeAnswerRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAuditSurveyTakeStatistics_reportsWhereDerivedCountsDiffer() {
+        GetSurveyDetailRequest req = new GetSurveyDetailRequest();
+        req.setSessionToken("validToken");
+        req.setSurveyId("555");
+        surveyAccessIndex.add(555L, 1L, false, List.of());
+
+        SortedMap<Integer, Map<String, Long>> fromTakes = new TreeMap<>();
+        fromTakes.put(1, Map.of("A", 3L, "B", 1L));
+        fromTakes.put(2, Map.of("C", 4L));
+        when(takeStatsAggregator.aggregate(555L)).thenReturn(fromTakes);
+        // 计数表少了一个 B；take_answers 与 takes 一致
+        when(answerCounterRepository.findCountsBySurveyId(555L)).thenReturn(List.of(
+                new AnswerCount(555L, 1, "A", 3L),
+                new AnswerCount(555L, 2, "C", 4L)));
+        when(takeAnswerRepository.countAnswersBySurveyId(555L)).thenReturn(List.of(
+                new AnswerCount(555L, 1, "A", 3L),
+                new AnswerCount(555L, 1, "B", 1L),
+                new AnswerCount(555L, 2, "C", 4L)));
+
+        ResponseEntity<Map<String, Object>> response = takeService.auditSurveyTakeStatistics(req);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(List.of(Map.of("question_order", 1, "answer", "B", "expected", 1L, "actual", 0L)),
+                response.getBody().get("answerCounterDifferences"));
+        assertEquals(List.of(), response.getBody().get("takeAnswerDifferences"));
+        List<TakesStatsDTO> stats = (List<TakesStatsDTO>) response.getBody().get("stats");
+        assertEquals(Map.of("A", 3, "B", 1), stats.get(0).getStats());
+    }
 }
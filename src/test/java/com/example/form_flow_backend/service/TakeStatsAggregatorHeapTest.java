@@ -0,0 +1,97 @@
+package com.example.form_flow_backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Aggregates 3 million takes with the heap capped at 128 MB (./gradlew heapTest).
+ * Materialising the answer strings alone would need more than that, so this only passes
+ * if the takes are streamed. Uses a file-backed H2 database so the rows are not on the heap either.
+ */
+@Tag("heap")
+@DataJpaTest(properties =
+        "spring.datasource.url=jdbc:h2:file:./build/heap-test/takes;MODE=MySQL;DATABASE_TO_LOWER=TRUE")
+@Import(TakeStatsAggregator.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TakeStatsAggregatorHeapTest {
+
+    private static final int TAKES = 3_000_000;
+    private static final int BATCH = 10_000;
+    private static final String[] ANSWERS = {"A;B,C;x", "B;C;y", "A;A;z"};
+
+    @Autowired
+    private TakeStatsAggregator takeStatsAggregator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+    private long surveyId;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        jdbcTemplate.update("INSERT INTO users (username, email, password) VALUES ('heap', 'heap@example.com', '-')");
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'heap'", Long.class);
+        jdbcTemplate.update("INSERT INTO surveys (survey_name, is_public, questions_version, user_id) VALUES ('heap', FALSE, 0, ?)",
+                userId);
+        surveyId = jdbcTemplate.queryForObject("SELECT id FROM surveys WHERE user_id = ?", Long.class, userId);
+
+        for (int start = 0; start < TAKES; start += BATCH) {
+            int offset = start;
+            jdbcTemplate.batchUpdate("INSERT INTO takes (user_id, survey_id, answers) VALUES (?, ?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ps.setLong(1, userId);
+                            ps.setLong(2, surveyId);
+                            ps.setString(3, ANSWERS[(offset + i) % ANSWERS.length]);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return Math.min(BATCH, TAKES - offset);
+                        }
+                    });
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM takes WHERE survey_id IN (SELECT id FROM surveys WHERE survey_name = 'heap')");
+        jdbcTemplate.update("DELETE FROM surveys WHERE survey_name = 'heap'");
+        jdbcTemplate.update("DELETE FROM users WHERE username = 'heap'");
+    }
+
+    @Test
+    void aggregatesMillionsOfTakesInConstantMemory() {
+        long start = System.nanoTime();
+        SortedMap<Integer, Map<String, Long>> counts = takeStatsAggregator.aggregate(surveyId);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long third = TAKES / 3;
+        assertEquals(Map.of("A", 2 * third, "B", third), counts.get(1));
+        assertEquals(Map.of("B", third, "C", 2 * third, "A", third), counts.get(2));
+        assertEquals(Map.of("x", third, "y", third, "z", third), counts.get(3));
+
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("aggregated %d takes in %d ms, heap used %d MB of max %d MB%n", TAKES, elapsedMillis,
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20, runtime.maxMemory() >> 20);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.model.Survey;
+import com.example.form_flow_backend.model.Takes;
+import com.example.form_flow_backend.model.User;
+import com.example.form_flow_backend.repository.SurveyRepository;
+import com.example.form_flow_backend.repository.TakesRepository;
+import com.example.form_flow_backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(TakeStatsAggregator.class)
+class TakeStatsAggregatorTest {
+
+    @Autowired
+    private TakeStatsAggregator takeStatsAggregator;
+
+    @Autowired
+    private TakesRepository takesRepository;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void aggregate_CountsEveryChosenOptionPerQuestion() {
+        Survey survey = surveyWithTakes("aggregate-user", "A;B,C", "A;C", "B;C");
+
+        SortedMap<Integer, Map<String, Long>> counts = takeStatsAggregator.aggregate(survey.getId());
+
+        assertEquals(Map.of("A", 2L, "B", 1L), counts.get(1));
+        assertEquals(Map.of("B", 1L, "C", 3L), counts.get(2));
+        assertTrue(takeStatsAggregator.aggregate(survey.getId() + 1000).isEmpty());
+    }
+
+    @Test
+    void aggregate_ParallelChunksGiveTheSameResultAsSequential() {
+        String[] answers = new String[1000];
+        for (int i = 0; i < answers.length; i++) {
+            answers[i] = "Q" + (i % 7) + ";" + (char) ('A' + i % 5) + "," + (char) ('A' + i % 3) + ";x" + (i % 11);
+        }
+        Survey survey = surveyWithTakes("parallel-user", answers);
+
+        // 阈值 0、每个 chunk 3 份：几乎全部走并行路径，且 chunk 数远多于在途上限
+        TakeStatsAggregator sequential = new TakeStatsAggregator(takesRepository, Integer.MAX_VALUE, 3, 4);
+        TakeStatsAggregator parallel = new TakeStatsAggregator(takesRepository, 0, 3, 4);
+        try {
+            SortedMap<Integer, Map<String, Long>> expected = sequential.aggregate(survey.getId());
+            SortedMap<Integer, Map<String, Long>> actual = parallel.aggregate(survey.getId());
+
+            assertEquals(expected, actual);
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(1000L, actual.get(1).values().stream().mapToLong(Long::longValue).sum());
+            assertEquals(2000L, actual.get(2).values().stream().mapToLong(Long::longValue).sum());
+        } finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    private Survey surveyWithTakes(String username, String... answers) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("pass");
+        user = userRepository.save(user);
+
+        Survey survey = new Survey();
+        survey.setSurveyName("Aggregated");
+        survey.setUser(user);
+        survey = surveyRepository.save(survey);
+
+        for (String answer : answers) {
+            Takes take = new Takes();
+            take.setUser(user);
+            take.setSurvey(survey);
+            take.setAnswers(answer);
+            takesRepository.save(take);
+        }
+        takesRepository.flush();
+        return survey;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.form_flow_backend.service;
+
+import com.example.form_flow_backend.model.User;
+import com.example.form_flow_backend.repository.UserRepository;
+import com.example.form_flow_backend.security.BoundedPasswordEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private BoundedPasswordEncoder passwordEncoder;
+
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 8,
+                Duration.ofSeconds(10), new SimpleMeterRegistry());
+        userImportService = new UserImportService(userRepository, passwordEncoder, new ObjectMapper(), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.destroy();
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> results(ResponseEntity<Map<String, Object>> response) {
+        return (List<Map<String, Object>>) response.getBody().get("results");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportCsv_ChunksAndHashes() throws Exception {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of());
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+
+        String csv = "email,username,password\n"
+                + "a@example.com,alice,pw1\n"
+                + "b@example.com,bob,pw2\n"
+                + "c@example.com,carol,pw3\n";
+        ResponseEntity<Map<String, Object>> response =
+                userImportService.importUsers(body(csv), UserImportService.Format.CSV);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(3, response.getBody().get("total"));
+        assertEquals(3, ((Map<String, Integer>) response.getBody().get("counts")).get("created"));
+
+        // chunk-size = 2：两次批量插入、两轮查重
+        ArgumentCaptor<List<User>> batches = ArgumentCaptor.forClass(List.class);
+        verify(userRepository, times(2)).batchInsert(batches.capture());
+        verify(userRepository, times(2)).findExistingUsernames(anyCollection());
+        User alice = batches.getAllValues().get(0).get(0);
+        assertEquals("alice", alice.getUsername());
+        assertTrue(new BCryptPasswordEncoder().matches("pw1", alice.getPassword()));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void testImportNdjson_ReportsDuplicatesAndInvalidRows() throws Exception {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of("taken"));
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+
+        String ndjson = "{\"username\":\"taken\",\"email\":\"t@example.com\",\"password\":\"pw\"}\n"
+                + "{\"username\":\"dave\",\"email\":\"not-an-email\",\"password\":\"pw\"}\n"
+                + "not json\n"
+                + "{\"username\":\"erin\",\"email\":\"e@example.com\",\"password\":\"pw\"}\n"
+                + "{\"username\":\"erin\",\"email\":\"e2@example.com\",\"password\":\"pw\"}\n";
+        List<Map<String, Object>> results = results(
+                userImportService.importUsers(body(ndjson), UserImportService.Format.NDJSON));
+
+        assertEquals(5, results.size());
+        assertEquals("duplicate", results.get(0).get("status"));
+        assertEquals("Username already exists", results.get(0).get("message"));
+        assertEquals("invalid", results.get(1).get("status"));
+        assertEquals("invalid", results.get(2).get("status"));
+        assertEquals("created", results.get(3).get("status"));
+        assertEquals("duplicate", results.get(4).get("status"));
+        assertEquals(4, results.get(3).get("row"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImport_ConcurrentDuplicateFallsBackToRowByRow() throws Exception {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of());
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .doNothing()
+                .doThrow(new DataIntegrityViolationException("duplicate"))
+                .when(userRepository).batchInsert(any(List.class));
+
+        String csv = "username,email,password\nfrank,f@example.com,pw\ngrace,g@example.com,pw\n";
+        List<Map<String, Object>> results = results(
+                userImportService.importUsers(body(csv), UserImportService.Format.CSV));
+
+        assertEquals("created", results.get(0).get("status"));
+        assertEquals("duplicate", results.get(1).get("status"));
+        verify(userRepository, times(3)).batchInsert(any(List.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportCsv_QuotedFields() throws Exception {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of());
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+
+        // 带引号的字段可以包含逗号和转义的引号；未闭合的引号整行判为无效
+        String csv = "\"username\",email,password\n"
+                + "\"smith, j\",j@example.com,\"pa,ss\"\"word\"\n"
+                + "\"broken,b@example.com,pw\n";
+        List<Map<String, Object>> results = results(
+                userImportService.importUsers(body(csv), UserImportService.Format.CSV));
+
+        assertEquals("created", results.get(0).get("status"));
+        assertEquals("smith, j", results.get(0).get("username"));
+        assertEquals("invalid", results.get(1).get("status"));
+        assertEquals("Malformed CSV line", results.get(1).get("message"));
+        ArgumentCaptor<List<User>> batch = ArgumentCaptor.forClass(List.class);
+        verify(userRepository).batchInsert(batch.capture());
+        assertTrue(new BCryptPasswordEncoder().matches("pa,ss\"word", batch.getValue().get(0).getPassword()));
+    }
+
+    @Test
+    void testImportCsv_MissingHeaderColumns() throws Exception {
+        ResponseEntity<Map<String, Object>> response =
+                userImportService.importUsers(body("username,password\nx,y\n"), UserImportService.Format.CSV);
+
+        assertEquals(400, response.getStatusCodeValue());
+        assertFalse((Boolean) response.getBody().get("success"));
+        verifyNoInteractions(userRepository);
+    }
+}
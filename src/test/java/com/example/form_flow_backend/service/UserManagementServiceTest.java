@@ -2,6 +2,7 @@ package com.example.form_flow_backend.service;
 
 import com.example.form_flow_backend.model.User;
 import com.example.form_flow_backend.repository.UserRepository;
+import com.example.form_flow_backend.security.PasswordHashingUnavailableException;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -156,6 +157,22 @@ class UserManagementServiceTest {
             assertNotNull(response);
         }
 
+        @Test
+        @DisplayName("Should return 503 when the password hashing pool is saturated")
+        void testRegisterUserWhenHashingSaturated() {
+            PasswordEncoder saturated = mock(PasswordEncoder.class);
+            when(saturated.encode("rawPassword"))
+                    .thenThrow(new PasswordHashingUnavailableException("Password hashing is saturated"));
+            userManagementService = new UserManagementService(userRepository, saturated);
+
+            ResponseEntity<Map<String, Object>> response = userManagementService.registerUser(user);
+
+            assertEquals(503, response.getStatusCodeValue());
+            assertFalse((Boolean) response.getBody().get("success"));
+            assertEquals("Server busy, please retry.", response.getBody().get("message"));
+            verify(userRepository, never()).save(any(User.class));
+        }
+
         // 新增：测试repo抛出RuntimeException
         @Test
         @DisplayName("Should handle repository exception during registration")
@@ -293,4 +310,25 @@ class UserManagementServiceTest {
                     () -> detailsService.loadUserByUsername("testuser"));
         }
     }
+
+    @Nested
+    @DisplayName("Tests for userDetailsPasswordService method")
+    class UserDetailsPasswordServiceTests {
+
+        @Test
+        @DisplayName("Should store the re-encoded password of an existing user")
+        void testUpdatePasswordSavesNewHash() {
+            user.setPassword("oldHash");
+            when(userRepository.findByUsername("testuser"))
+                    .thenReturn(Optional.of(user));
+
+            var detailsService = userManagementService.userDetailsService(userRepository);
+            var passwordService = userManagementService.userDetailsPasswordService(userRepository);
+            var updated = passwordService.updatePassword(detailsService.loadUserByUsername("testuser"), "newHash");
+
+            assertEquals("newHash", updated.getPassword());
+            assertEquals("newHash", user.getPassword());
+            verify(userRepository).save(user);
+        }
+    }
 }